@@ -0,0 +1,260 @@
+package org.jetbrains.plugins.autovaluehelper;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.*;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.Alarm;
+import com.intellij.util.ui.update.MergingUpdateQueue;
+import com.intellij.util.ui.update.Update;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.plugins.autovaluehelper.builder.AutoValueBuilderHandler;
+import org.jetbrains.plugins.autovaluehelper.comparator.AutoValueComparatorHandler;
+import org.jetbrains.plugins.autovaluehelper.creator.AutoValueCreateHandler;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// regenerates the Builder, create() and comparison of @AutoValue classes whose getters were edited, once the edits settle down
+@Service
+public final class AutoValueAutoRegenerator implements Disposable {
+
+    private static final String COMMAND_NAME = "Regenerate AutoValue Members";
+
+    // registered as an extension, so the service is only created once an @AutoValue class is edited with the option on
+    public static class PsiListener extends PsiTreeChangeAdapter {
+        @Override
+        public void beforeChildAddition(@NotNull PsiTreeChangeEvent event) {
+            rememberFingerprint(event);
+        }
+
+        @Override
+        public void beforeChildRemoval(@NotNull PsiTreeChangeEvent event) {
+            rememberFingerprint(event);
+        }
+
+        @Override
+        public void beforeChildReplacement(@NotNull PsiTreeChangeEvent event) {
+            rememberFingerprint(event);
+        }
+
+        @Override
+        public void beforeChildrenChange(@NotNull PsiTreeChangeEvent event) {
+            rememberFingerprint(event);
+        }
+
+        @Override
+        public void childAdded(@NotNull PsiTreeChangeEvent event) {
+            scheduleRegeneration(event);
+        }
+
+        @Override
+        public void childRemoved(@NotNull PsiTreeChangeEvent event) {
+            scheduleRegeneration(event);
+        }
+
+        @Override
+        public void childReplaced(@NotNull PsiTreeChangeEvent event) {
+            scheduleRegeneration(event);
+        }
+
+        @Override
+        public void childrenChanged(@NotNull PsiTreeChangeEvent event) {
+            scheduleRegeneration(event);
+        }
+
+        private static void rememberFingerprint(@NotNull PsiTreeChangeEvent event) {
+            final PsiClass clazz = findChangedClass(event);
+            if (clazz != null) {
+                getInstance(clazz.getProject()).rememberFingerprint(clazz);
+            }
+        }
+
+        private static void scheduleRegeneration(@NotNull PsiTreeChangeEvent event) {
+            final PsiClass clazz = findChangedClass(event);
+            if (clazz != null) {
+                getInstance(clazz.getProject()).scheduleRegeneration(clazz);
+            }
+        }
+    }
+
+    @NotNull
+    private final Project project;
+    @NotNull
+    private final MergingUpdateQueue queue;
+    // getters of every edited class before its first edit since the last regeneration,
+    // a class is only regenerated when they change and its entry is dropped once it is in sync again
+    private final Map<String, Map<String, String>> fingerprints = new ConcurrentHashMap<>();
+    // edited classes by qualified name
+    private final Map<String, SmartPsiElementPointer<PsiClass>> dirtyClasses =
+            Collections.synchronizedMap(new LinkedHashMap<>());
+    // our own changes must not schedule another run
+    private volatile boolean applying;
+
+    @NotNull
+    public static AutoValueAutoRegenerator getInstance(@NotNull Project project) {
+        return ServiceManager.getService(project, AutoValueAutoRegenerator.class);
+    }
+
+    public AutoValueAutoRegenerator(@NotNull Project project) {
+        this.project = project;
+        this.queue = new MergingUpdateQueue(
+                "AutoValue regeneration",
+                AutoValueHelperSettings.getInstance().autoRegenerateDelayMs,
+                true,
+                null,
+                this,
+                null,
+                Alarm.ThreadToUse.POOLED_THREAD
+        );
+        // every edit postpones the run, a burst of typing ends up in a single regeneration
+        queue.setRestartTimerOnAdd(true);
+    }
+
+    private void rememberFingerprint(@NotNull PsiClass clazz) {
+        final String qualifiedName = clazz.getQualifiedName();
+        if (!applying && qualifiedName != null && !fingerprints.containsKey(qualifiedName)) {
+            fingerprints.put(qualifiedName, AutoValuePropertyModel.getInstance(clazz).getFingerprint());
+        }
+    }
+
+    private void scheduleRegeneration(@NotNull PsiClass clazz) {
+        final String qualifiedName = clazz.getQualifiedName();
+        if (applying || qualifiedName == null) {
+            return;
+        }
+        scheduleRegeneration(qualifiedName, SmartPointerManager.getInstance(project).createSmartPsiElementPointer(clazz));
+    }
+
+    private void scheduleRegeneration(@NotNull String qualifiedName, @NotNull SmartPsiElementPointer<PsiClass> pointer) {
+        dirtyClasses.put(qualifiedName, pointer);
+        queue.setMergingTimeSpan(AutoValueHelperSettings.getInstance().autoRegenerateDelayMs);
+        queue.queue(Update.create(this, this::regenerate));
+    }
+
+    // the @AutoValue class whose method signatures were touched, edits of method bodies and other classes are ignored
+    @Nullable
+    private static PsiClass findChangedClass(@NotNull PsiTreeChangeEvent event) {
+        if (!AutoValueHelperSettings.getInstance().autoRegenerate || !(event.getFile() instanceof PsiJavaFile)) {
+            return null;
+        }
+        final PsiElement parent = event.getParent();
+        final PsiElement child = event.getChild();
+        final PsiClass clazz;
+        if (parent instanceof PsiClass) {
+            // methods added or removed
+            if (child != null && !(child instanceof PsiMethod)) {
+                return null;
+            }
+            clazz = (PsiClass) parent;
+        } else {
+            final PsiMethod method = PsiTreeUtil.getParentOfType(parent, PsiMethod.class, false, PsiCodeBlock.class);
+            if (method == null || !method.hasModifierProperty(PsiModifier.ABSTRACT)) {
+                return null;
+            }
+            clazz = method.getContainingClass();
+        }
+        // the index is not up to date while PSI changes, the annotation is checked directly
+        if (clazz == null || !clazz.isValid() || clazz.getModifierList() == null
+                || clazz.getModifierList().findAnnotation(AutoValueUtils.AUTO_VALUE) == null) {
+            return null;
+        }
+        return clazz;
+    }
+
+    private void regenerate() {
+        final Map<String, SmartPsiElementPointer<PsiClass>> classes;
+        synchronized (dirtyClasses) {
+            classes = new LinkedHashMap<>(dirtyClasses);
+            dirtyClasses.clear();
+        }
+
+        for (Map.Entry<String, SmartPsiElementPointer<PsiClass>> entry : classes.entrySet()) {
+            final String qualifiedName = entry.getKey();
+            final SmartPsiElementPointer<PsiClass> pointer = entry.getValue();
+            final long[] modificationCount = {0};
+            final List<AutoValueMemberPlan> plans = DumbService.getInstance(project).runReadActionInSmartMode(() -> {
+                modificationCount[0] = getModificationCount();
+                final PsiClass clazz = pointer.getElement();
+                if (clazz == null || !qualifiedName.equals(clazz.getQualifiedName())) {
+                    return Collections.<AutoValueMemberPlan>emptyList();
+                }
+                final Map<String, String> fingerprint = AutoValuePropertyModel.getInstance(clazz).getFingerprint();
+                if (fingerprint.isEmpty() || fingerprint.equals(fingerprints.get(qualifiedName))) {
+                    return Collections.<AutoValueMemberPlan>emptyList();
+                }
+                // only members that were generated once are kept in sync
+                final List<AutoValueMemberPlan> classPlans = new ArrayList<>();
+                for (AutoValueBaseHelperHandler handler : getHandlers()) {
+                    if (handler.hasGeneratedMembers(clazz)) {
+                        final AutoValueMemberPlan plan = handler.buildPlan(project, clazz);
+                        if (plan != null && !plan.isEmpty()) {
+                            classPlans.add(plan);
+                        }
+                    }
+                }
+                return classPlans;
+            });
+            if (plans.isEmpty()) {
+                fingerprints.remove(qualifiedName);
+            } else {
+                apply(qualifiedName, pointer, plans, modificationCount[0]);
+            }
+        }
+    }
+
+    @NotNull
+    private static List<AutoValueBaseHelperHandler> getHandlers() {
+        return Arrays.asList(
+                AutoValueBuilderHandler.getInstance(),
+                AutoValueCreateHandler.getInstance(),
+                AutoValueComparatorHandler.getInstance()
+        );
+    }
+
+    private void apply(
+            @NotNull String qualifiedName,
+            @NotNull SmartPsiElementPointer<PsiClass> pointer,
+            @NotNull List<AutoValueMemberPlan> plans,
+            long modificationCount
+    ) {
+        ApplicationManager.getApplication().invokeLater(() -> {
+            // PSI changed after the plans were computed, they are built again from the current code
+            if (modificationCount != getModificationCount()) {
+                scheduleRegeneration(qualifiedName, pointer);
+                return;
+            }
+            applying = true;
+            try {
+                WriteCommandAction.runWriteCommandAction(project, COMMAND_NAME, null, () -> {
+                    for (AutoValueMemberPlan plan : plans) {
+                        if (plan.isValid()) {
+                            plan.run();
+                        }
+                    }
+                });
+            } finally {
+                applying = false;
+            }
+            fingerprints.remove(qualifiedName);
+        }, ModalityState.NON_MODAL, project.getDisposed());
+    }
+
+    private long getModificationCount() {
+        return PsiModificationTracker.SERVICE.getInstance(project).getModificationCount();
+    }
+
+    @Override
+    public void dispose() {
+        fingerprints.clear();
+        dirtyClasses.clear();
+    }
+}
@@ -0,0 +1,156 @@
+package org.jetbrains.plugins.autovaluehelper;
+
+import com.intellij.analysis.AnalysisScope;
+import com.intellij.analysis.BaseAnalysisAction;
+import com.intellij.codeInsight.FileModificationService;
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationType;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+public abstract class AutoValueBaseBatchAction extends BaseAnalysisAction {
+
+    private static final int WRITE_BATCH_SIZE = 50;
+
+    @NotNull
+    private final Supplier<? extends AutoValueBaseHelperHandler> handler;
+    @NotNull
+    private final String title;
+
+    protected AutoValueBaseBatchAction(
+            @NotNull String title,
+            @NotNull Supplier<? extends AutoValueBaseHelperHandler> handler
+    ) {
+        super(title, "Regenerate");
+        this.title = title;
+        this.handler = handler;
+    }
+
+    @Override
+    protected void analyze(@NotNull final Project project, @NotNull final AnalysisScope scope) {
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, title, true) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                regenerate(project, scope, indicator);
+            }
+        });
+    }
+
+    private void regenerate(
+            @NotNull final Project project,
+            @NotNull final AnalysisScope scope,
+            @NotNull final ProgressIndicator indicator
+    ) {
+        indicator.setIndeterminate(true);
+        indicator.setText("Searching for @AutoValue classes...");
+        final List<PsiClass> autoValueClasses = DumbService.getInstance(project).runReadActionInSmartMode(
+                () -> AutoValueUtils.findAutoValueClasses(project, scope.toSearchScope())
+        );
+        if (autoValueClasses.isEmpty()) {
+            notify(project, "No @AutoValue classes found in " + scope.getDisplayName());
+            return;
+        }
+
+        // collect getters and compute changes of every class in parallel, one short read action per class,
+        // classes the members were never generated into are left alone
+        indicator.setIndeterminate(false);
+        indicator.setText("Collecting properties...");
+        final AutoValueBaseHelperHandler handler = this.handler.get();
+        final Map<PsiClass, AutoValueMemberPlan> plans = new ConcurrentHashMap<>();
+        final Map<PsiClass, Long> modificationStamps = new ConcurrentHashMap<>();
+        final AtomicInteger generatedClasses = new AtomicInteger();
+        final AtomicInteger processed = new AtomicInteger();
+        JobLauncher.getInstance().invokeConcurrentlyUnderProgress(autoValueClasses, indicator, clazz -> {
+            ReadAction.run(() -> {
+                if (!clazz.isValid() || !handler.hasGeneratedMembers(clazz)) {
+                    return;
+                }
+                generatedClasses.incrementAndGet();
+                final long modificationStamp = clazz.getContainingFile().getModificationStamp();
+                final AutoValueMemberPlan plan = handler.buildPlan(project, clazz);
+                if (plan != null && !plan.isEmpty()) {
+                    plans.put(clazz, plan);
+                    modificationStamps.put(clazz, modificationStamp);
+                }
+            });
+            indicator.setFraction(0.5 * processed.incrementAndGet() / autoValueClasses.size());
+            return true;
+        });
+
+        // apply changes in batches, each batch is a separate undoable command, up to date classes are not touched
+        indicator.setText("Regenerating...");
+        final List<PsiClass> changedClasses = new ArrayList<>();
+        for (PsiClass clazz : autoValueClasses) {
+            if (plans.containsKey(clazz)) {
+                changedClasses.add(clazz);
+            }
+        }
+        int regenerated = 0;
+        for (int start = 0; start < changedClasses.size(); start += WRITE_BATCH_SIZE) {
+            indicator.checkCanceled();
+            final int end = Math.min(start + WRITE_BATCH_SIZE, changedClasses.size());
+            final List<PsiClass> batchClasses = changedClasses.subList(start, end);
+            final AtomicInteger batchRegenerated = new AtomicInteger();
+            ApplicationManager.getApplication().invokeAndWait(() -> {
+                if (project.isDisposed()
+                        || !FileModificationService.getInstance().preparePsiElementsForWrite(batchClasses)) {
+                    return;
+                }
+                WriteCommandAction.runWriteCommandAction(project, title, null, () -> {
+                    for (PsiClass clazz : batchClasses) {
+                        if (!clazz.isValid()) {
+                            continue;
+                        }
+                        // the file was edited since the plan was computed, possibly by an earlier plan of this batch
+                        final AutoValueMemberPlan plan =
+                                clazz.getContainingFile().getModificationStamp() == modificationStamps.get(clazz)
+                                        ? plans.get(clazz)
+                                        : rebuildPlan(project, handler, clazz);
+                        if (plan != null && !plan.isEmpty() && plan.isValid()) {
+                            plan.run();
+                            batchRegenerated.incrementAndGet();
+                        }
+                    }
+                });
+            }, ModalityState.defaultModalityState());
+            regenerated += batchRegenerated.get();
+            indicator.setFraction(0.5 + 0.5 * end / changedClasses.size());
+        }
+
+        notify(project, String.format(
+                "Regenerated %d of %d @AutoValue classes with generated members, %d already up to date",
+                regenerated, generatedClasses.get(), generatedClasses.get() - changedClasses.size()
+        ));
+    }
+
+    @Nullable
+    private static AutoValueMemberPlan rebuildPlan(
+            @NotNull Project project,
+            @NotNull AutoValueBaseHelperHandler handler,
+            @NotNull PsiClass clazz
+    ) {
+        return handler.hasGeneratedMembers(clazz) ? handler.buildPlan(project, clazz) : null;
+    }
+
+    private void notify(@NotNull Project project, @NotNull String content) {
+        new Notification(AutoValueUtils.NOTIFICATION_GROUP, title, content, NotificationType.INFORMATION).notify(project);
+    }
+}
@@ -7,23 +7,26 @@ import com.intellij.openapi.project.Project;
 import com.intellij.psi.PsiFile;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.function.Supplier;
+
 public class AutoValueBaseHelperAction extends BaseCodeInsightAction {
 
+    // handlers are services, created on the first use of the action rather than with it
     @NotNull
-    private final AutoValueBaseHelperHandler handler;
+    private final Supplier<? extends AutoValueBaseHelperHandler> handler;
 
-    protected AutoValueBaseHelperAction(@NotNull AutoValueBaseHelperHandler handler) {
+    protected AutoValueBaseHelperAction(@NotNull Supplier<? extends AutoValueBaseHelperHandler> handler) {
         this.handler = handler;
     }
 
     @Override
     @NotNull
     protected CodeInsightActionHandler getHandler() {
-        return handler;
+        return handler.get();
     }
 
     @Override
     protected boolean isValidForFile(@NotNull Project project, @NotNull Editor editor, @NotNull PsiFile file) {
-        return handler.isValidFor(editor, file);
+        return handler.get().isValidFor(editor, file);
     }
 }
@@ -1,67 +1,135 @@
 package org.jetbrains.plugins.autovaluehelper;
 
-import com.intellij.codeInsight.generation.PsiMethodMember;
+import com.intellij.application.options.CodeStyle;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.psi.*;
-import com.intellij.psi.util.PsiUtil;
+import com.intellij.psi.codeStyle.JavaCodeStyleSettings;
+import com.intellij.psi.search.LocalSearchScope;
+import com.intellij.psi.search.searches.ReferencesSearch;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
 
 import java.util.List;
 
-public abstract class AutoValueBaseHelperGenerator implements Runnable {
+public abstract class AutoValueBaseHelperGenerator {
 
-    protected static final String NONNULL = "android.support.annotation.NonNull";
-    protected static final String NULLABLE = "android.support.annotation.Nullable";
+    protected static final String NONNULL = AutoValueProperty.NONNULL;
+    protected static final String NULLABLE = AutoValueProperty.NULLABLE;
     protected static final String AUTO_VALUE_BUILDER = "com.google.auto.value.AutoValue.Builder";
+    protected static final String INTERNER_FIELD_NAME = "INTERNER";
+    private static final String INTERNER = "com.google.common.collect.Interner";
 
-    protected final List<PsiMethodMember> selectedMethods;
+    protected final List<AutoValueProperty> properties;
     protected final Project project;
+    protected final PsiClass targetClass;
     protected final PsiElementFactory psiElementFactory;
+    private final boolean generateFinalParameters;
 
-    protected AutoValueBaseHelperGenerator(@NotNull List<PsiMethodMember> selectedMethods, @NotNull Project project) {
-        this.selectedMethods = selectedMethods;
+    protected AutoValueBaseHelperGenerator(
+            @NotNull List<AutoValueProperty> properties,
+            @NotNull Project project,
+            @NotNull PsiClass targetClass
+    ) {
+        this.properties = properties;
         this.project = project;
+        this.targetClass = targetClass;
         this.psiElementFactory = JavaPsiFacade.getInstance(project).getElementFactory();
+        this.generateFinalParameters = CodeStyle.getCustomSettings(
+                targetClass.getContainingFile(),
+                JavaCodeStyleSettings.class
+        ).GENERATE_FINAL_PARAMETERS;
+    }
+
+    // computes the changes without touching the physical PSI, so it is safe to call in a read action
+    @NotNull
+    public AutoValueMemberPlan buildPlan() {
+        final String className = StringUtil.notNullize(targetClass.getQualifiedName(), String.valueOf(targetClass.getName()));
+        final AutoValueGenerationRun generationRun = new AutoValueGenerationRun(getGeneratorName(), className);
+        final AutoValueMemberPlan plan = new AutoValueMemberPlan(project, generationRun);
+        if (targetClass.isValid()) {
+            generationRun.setPropertyCount(properties.size());
+            generationRun.setHierarchySize(AutoValuePropertyModel.getInstance(targetClass).getHierarchySize());
+
+            final long start = System.nanoTime();
+            fillPlan(plan);
+            final long renderNanos = System.nanoTime() - start
+                    - generationRun.getDurationNanos(AutoValueGenerationRun.Phase.DIFF);
+            generationRun.addDuration(AutoValueGenerationRun.Phase.RENDER, renderNanos);
+        }
+        return plan;
+    }
+
+    @NotNull
+    protected abstract String getGeneratorName();
+
+    protected abstract void fillPlan(@NotNull AutoValueMemberPlan plan);
+
+    @NotNull
+    protected String renderSetterParameter(
+            @NotNull AutoValueProperty property,
+            @NotNull PsiType parameterType,
+            @NotNull String parameterName
+    ) {
+        return renderParameter(property.getNullability(), parameterType, parameterName);
     }
 
     @NotNull
-    protected PsiParameter createSetterParameter(
-            @NotNull PsiMethod getterMethod,
+    protected String renderParameter(
+            @NotNull AutoValueProperty.Nullability nullability,
             @NotNull PsiType parameterType,
             @NotNull String parameterName
     ) {
-        final PsiParameter setterParameter = psiElementFactory.createParameter(parameterName, parameterType);
+        final StringBuilder setterParameter = new StringBuilder();
         if (!(parameterType instanceof PsiPrimitiveType)) {
-            PsiModifierList modifierList = setterParameter.getModifierList();
-            assert modifierList != null;
-            if (getterMethod.getModifierList().findAnnotation(NULLABLE) != null) {
-                modifierList.addAnnotation(NULLABLE);
-            } else if (getterMethod.getModifierList().findAnnotation(NONNULL) != null) {
-                modifierList.addAnnotation(NONNULL);
+            if (nullability == AutoValueProperty.Nullability.NULLABLE) {
+                setterParameter.append('@').append(NULLABLE).append(' ');
+            } else if (nullability == AutoValueProperty.Nullability.NONNULL) {
+                setterParameter.append('@').append(NONNULL).append(' ');
             }
         }
-        return setterParameter;
+        if (generateFinalParameters) {
+            setterParameter.append(PsiModifier.FINAL).append(' ');
+        }
+        return setterParameter.append(parameterType.getCanonicalText()).append(' ').append(parameterName).toString();
     }
 
-    @NotNull
-    protected PsiElement addMethod(
-            @NotNull final PsiClass target,
-            @Nullable final PsiElement after,
-            @NotNull final PsiMethod newMethod
-    ) {
-        PsiMethod existingMethod = target.findMethodBySignature(newMethod, false);
+    // generic classes cannot share a static interner
+    protected boolean isInterning() {
+        return AutoValueHelperSettings.getInstance().internInstances && !targetClass.hasTypeParameters();
+    }
 
-        if (existingMethod == null) {
-            if (after != null) {
-                return target.addAfter(newMethod, after);
-            } else {
-                return target.add(newMethod);
-            }
+    // weak interner shared by create() and Builder.build(), removed again when interning is turned off
+    protected void syncInterner(@NotNull AutoValueMemberPlan plan) {
+        final PsiField existing = targetClass.findFieldByName(INTERNER_FIELD_NAME, false);
+        // a hand-written field of the same name is never touched
+        if (existing != null && !existing.getType().getCanonicalText().startsWith(INTERNER + "<")) {
+            return;
+        }
+
+        if (isInterning()) {
+            final PsiField interner = psiElementFactory.createFieldFromText(String.format(
+                    "private static final %s<%s> %s = com.google.common.collect.Interners.newWeakInterner();",
+                    INTERNER,
+                    psiElementFactory.createType(targetClass).getCanonicalText(),
+                    INTERNER_FIELD_NAME
+            ), targetClass);
+            plan.syncField(targetClass, interner);
+            return;
         }
 
-        existingMethod.replace(newMethod);
-        return existingMethod;
+        // create() and Builder.build() are regenerated separately, so the other one may still intern
+        if (existing != null && !isReferencedOutside(existing, plan)) {
+            plan.deleteField(existing);
+        }
+    }
+
+    private boolean isReferencedOutside(@NotNull PsiField field, @NotNull AutoValueMemberPlan plan) {
+        for (PsiReference reference : ReferencesSearch.search(field, new LocalSearchScope(targetClass)).findAll()) {
+            if (!plan.isRewritten(reference.getElement())) {
+                return true;
+            }
+        }
+        return false;
     }
 
     @NotNull
@@ -77,15 +145,15 @@ public abstract class AutoValueBaseHelperGenerator implements Runnable {
         return classNameBuilder.toString();
     }
 
-    protected void setSameVisibility(@NotNull PsiMember from, @NotNull PsiMember to) {
+    @NotNull
+    protected String renderSameVisibility(@NotNull PsiMember from) {
         if (from.hasModifierProperty(PsiModifier.PUBLIC)) {
-            PsiUtil.setModifierProperty(to, PsiModifier.PUBLIC, true);
+            return PsiModifier.PUBLIC + " ";
         } else if (from.hasModifierProperty(PsiModifier.PROTECTED)) {
-            PsiUtil.setModifierProperty(to, PsiModifier.PROTECTED, true);
+            return PsiModifier.PROTECTED + " ";
         } else if (from.hasModifierProperty(PsiModifier.PRIVATE)) {
-            PsiUtil.setModifierProperty(to, PsiModifier.PRIVATE, true);
-        } else if (from.hasModifierProperty(PsiModifier.PACKAGE_LOCAL)) {
-            PsiUtil.setModifierProperty(to, PsiModifier.PACKAGE_LOCAL, true);
+            return PsiModifier.PRIVATE + " ";
         }
+        return "";
     }
 }
@@ -1,39 +1,54 @@
 package org.jetbrains.plugins.autovaluehelper;
 
 import com.intellij.codeInsight.CodeInsightUtilBase;
-import com.intellij.codeInsight.generation.PsiMethodMember;
 import com.intellij.lang.LanguageCodeInsightActionHandler;
-import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.command.WriteCommandAction;
 import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.fileEditor.FileDocumentManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.*;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 import static org.jetbrains.plugins.autovaluehelper.AutoValueUtils.collectMethods;
 
 public abstract class AutoValueBaseHelperHandler implements LanguageCodeInsightActionHandler {
+
+    protected static final String COMMAND_NAME = "Generate AutoValue Members";
+
+    private static class Analysis {
+        @NotNull
+        private final PsiClass targetClass;
+        @NotNull
+        private final AutoValueMemberPlan plan;
+        private final long modificationCount;
+
+        private Analysis(@NotNull PsiClass targetClass, @NotNull AutoValueMemberPlan plan, long modificationCount) {
+            this.targetClass = targetClass;
+            this.plan = plan;
+            this.modificationCount = modificationCount;
+        }
+    }
+
     @Override
     public boolean isValidFor(@NotNull Editor editor, @NotNull PsiFile file) {
         final PsiClass clazz = AutoValueUtils.getStaticOrTopLevelClass(file, editor);
         if (clazz == null) {
             return false;
         }
-        return isValidClass(clazz);
+        return AutoValueUtils.isAutoValueClass(clazz);
     }
 
     @Override
     public void invoke(@NotNull final Project project, @NotNull final Editor editor, @NotNull final PsiFile file) {
-        final PsiDocumentManager psiDocumentManager = PsiDocumentManager.getInstance(project);
-        final Document currentDocument = psiDocumentManager.getDocument(file);
-        if (currentDocument == null) {
-            return;
-        }
-
-        psiDocumentManager.commitDocument(currentDocument);
-
         if (!CodeInsightUtilBase.prepareEditorForWrite(editor)) {
             return;
         }
@@ -42,10 +57,7 @@ public abstract class AutoValueBaseHelperHandler implements LanguageCodeInsightA
             return;
         }
 
-        final List<PsiMethodMember> existingFields = collectMethods(file, editor);
-        if (existingFields != null && !existingFields.isEmpty()) {
-            generate(project, editor, file, existingFields);
-        }
+        scheduleAnalysis(project, editor, file, editor.getCaretModel().getOffset());
     }
 
     @Override
@@ -53,24 +65,108 @@ public abstract class AutoValueBaseHelperHandler implements LanguageCodeInsightA
         return false;
     }
 
-    private boolean isValidClass(@NotNull PsiClass clazz) {
-        final PsiModifierList psiModifierList = clazz.getModifierList();
-        if (psiModifierList == null) {
-            return false;
-        }
-        final PsiAnnotation[] annotations = psiModifierList.getAnnotations();
-        for (PsiAnnotation annotation : annotations) {
-            if ("com.google.auto.value.AutoValue".equals(annotation.getQualifiedName())) {
-                return true;
-            }
+    // the hierarchy walk and the diff run off the EDT, only applying the plan takes a write action
+    private void scheduleAnalysis(
+            @NotNull final Project project,
+            @NotNull final Editor editor,
+            @NotNull final PsiFile file,
+            final int offset
+    ) {
+        ReadAction.nonBlocking(() -> analyze(project, file, offset))
+                .withDocumentsCommitted(project)
+                .expireWhen(() -> project.isDisposed() || editor.isDisposed() || !file.isValid())
+                .coalesceBy(getClass(), file)
+                .finishOnUiThread(ModalityState.defaultModalityState(), analysis -> {
+                    if (analysis == null) {
+                        return;
+                    }
+                    if (analysis.plan.isEmpty()) {
+                        // up to date runs are recorded as well, they still pay for collecting and diffing
+                        AutoValueGenerationStatistics.getInstance(project).record(analysis.plan.getGenerationRun());
+                        return;
+                    }
+                    // PSI has changed since the analysis, start over
+                    if (analysis.modificationCount != getModificationCount(project)
+                            || !analysis.targetClass.isValid()
+                            || !analysis.plan.isValid()) {
+                        scheduleAnalysis(project, editor, file, editor.getCaretModel().getOffset());
+                        return;
+                    }
+                    applyPlan(project, file, analysis.targetClass, analysis.plan);
+                })
+                .submit(AppExecutorUtil.getAppExecutorService());
+    }
+
+    // collects the input of a chooser dialog off the EDT, like the analysis, and shows the dialog with it on the EDT
+    protected <T> void scheduleChooser(
+            @NotNull final Project project,
+            @NotNull final Editor editor,
+            @NotNull final PsiFile file,
+            @NotNull final Function<PsiClass, T> collectChoices,
+            @NotNull final Consumer<T> showChooser
+    ) {
+        final int offset = editor.getCaretModel().getOffset();
+        ReadAction.nonBlocking(() -> {
+                    final PsiClass targetClass = AutoValueUtils.getStaticOrTopLevelClass(file, offset);
+                    return targetClass == null ? null : collectChoices.apply(targetClass);
+                })
+                .withDocumentsCommitted(project)
+                .expireWhen(() -> project.isDisposed() || editor.isDisposed() || !file.isValid())
+                .finishOnUiThread(ModalityState.defaultModalityState(), choices -> {
+                    if (choices != null) {
+                        showChooser.accept(choices);
+                    }
+                })
+                .submit(AppExecutorUtil.getAppExecutorService());
+    }
+
+    @Nullable
+    private Analysis analyze(@NotNull Project project, @NotNull PsiFile file, int offset) {
+        final long modificationCount = getModificationCount(project);
+        final PsiClass targetClass = AutoValueUtils.getStaticOrTopLevelClass(file, offset);
+        if (targetClass == null) {
+            return null;
         }
-        return false;
+
+        final AutoValueMemberPlan plan = buildPlan(project, targetClass);
+        return plan == null ? null : new Analysis(targetClass, plan, modificationCount);
     }
 
-    protected abstract void generate(
+    // called on the EDT with an up to date plan
+    protected void applyPlan(
             @NotNull Project project,
-            @NotNull Editor editor,
             @NotNull PsiFile file,
-            @NotNull List<PsiMethodMember> existingFields
+            @NotNull PsiClass targetClass,
+            @NotNull AutoValueMemberPlan plan
+    ) {
+        WriteCommandAction.runWriteCommandAction(project, COMMAND_NAME, null, plan, file);
+    }
+
+    @Nullable
+    public AutoValueMemberPlan buildPlan(@NotNull Project project, @NotNull PsiClass targetClass) {
+        final long start = System.nanoTime();
+        final List<AutoValueProperty> properties = collectMethods(targetClass);
+        final long collectNanos = System.nanoTime() - start;
+        if (properties.isEmpty()) {
+            return null;
+        }
+
+        final AutoValueMemberPlan plan = createPlan(project, targetClass, properties);
+        plan.getGenerationRun().addDuration(AutoValueGenerationRun.Phase.COLLECT, collectNanos);
+        return plan;
+    }
+
+    private static long getModificationCount(@NotNull Project project) {
+        return PsiModificationTracker.SERVICE.getInstance(project).getModificationCount();
+    }
+
+    // whether the members this handler generates were already added to the class once
+    protected abstract boolean hasGeneratedMembers(@NotNull PsiClass targetClass);
+
+    @NotNull
+    protected abstract AutoValueMemberPlan createPlan(
+            @NotNull Project project,
+            @NotNull PsiClass targetClass,
+            @NotNull List<AutoValueProperty> properties
     );
 }
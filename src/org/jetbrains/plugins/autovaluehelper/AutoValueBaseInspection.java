@@ -0,0 +1,76 @@
+package org.jetbrains.plugins.autovaluehelper;
+
+import com.intellij.codeInspection.AbstractBaseJavaLocalInspectionTool;
+import com.intellij.codeInspection.InspectionManager;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.ProblemHighlightType;
+import com.intellij.psi.*;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public abstract class AutoValueBaseInspection extends AbstractBaseJavaLocalInspectionTool {
+
+    @Nullable
+    @Override
+    public ProblemDescriptor[] checkClass(
+            @NotNull PsiClass aClass,
+            @NotNull InspectionManager manager,
+            boolean isOnTheFly
+    ) {
+        final PsiIdentifier nameIdentifier = aClass.getNameIdentifier();
+        if (nameIdentifier == null || !AutoValueUtils.isAutoValueClass(aClass)) {
+            return null;
+        }
+
+        // both sides are cached until the next structural change, so highlighting only compares two maps
+        final AutoValuePropertyModel model = AutoValuePropertyModel.getInstance(aClass);
+        if (model.isEmpty()) {
+            return null;
+        }
+        final String problem = findProblem(aClass, model);
+        if (problem == null) {
+            return null;
+        }
+
+        return new ProblemDescriptor[]{
+                manager.createProblemDescriptor(
+                        nameIdentifier,
+                        problem,
+                        new AutoValueRegenerateFix(getFixName(), getHandler()),
+                        ProblemHighlightType.GENERIC_ERROR_OR_WARNING,
+                        isOnTheFly
+                )
+        };
+    }
+
+    @Nullable
+    protected abstract String findProblem(@NotNull PsiClass targetClass, @NotNull AutoValuePropertyModel model);
+
+    @NotNull
+    protected abstract String getFixName();
+
+    @NotNull
+    protected abstract AutoValueBaseHelperHandler getHandler();
+
+    @NotNull
+    protected static List<String> getParameterTypes(@NotNull final PsiMethod method) {
+        return CachedValuesManager.getCachedValue(method, () -> {
+            final PsiParameter[] parameters = method.getParameterList().getParameters();
+            final List<String> parameterTypes = new ArrayList<>(parameters.length);
+            for (PsiParameter parameter : parameters) {
+                parameterTypes.add(parameter.getType().getCanonicalText());
+            }
+            return CachedValueProvider.Result.create(
+                    Collections.unmodifiableList(parameterTypes),
+                    PsiModificationTracker.JAVA_STRUCTURE_MODIFICATION_COUNT
+            );
+        });
+    }
+}
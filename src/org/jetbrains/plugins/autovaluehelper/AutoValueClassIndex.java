@@ -0,0 +1,228 @@
+package org.jetbrains.plugins.autovaluehelper;
+
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.*;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.SearchScope;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.*;
+
+public class AutoValueClassIndex extends FileBasedIndexExtension<String, AutoValueClassIndex.Kind> {
+
+    public static final ID<String, Kind> NAME = ID.create("org.jetbrains.plugins.autovaluehelper.AutoValueClassIndex");
+
+    public enum Kind {
+        AUTO_VALUE, BUILDER
+    }
+
+    private static final String AUTO_VALUE_PACKAGE = "com.google.auto.value";
+    private static final String AUTO_VALUE_BUILDER = AutoValueUtils.AUTO_VALUE + ".Builder";
+
+    private static final DataExternalizer<Kind> KIND_EXTERNALIZER = new DataExternalizer<Kind>() {
+        @Override
+        public void save(@NotNull DataOutput out, Kind value) throws IOException {
+            DataInputOutputUtil.writeINT(out, value.ordinal());
+        }
+
+        @Override
+        public Kind read(@NotNull DataInput in) throws IOException {
+            return Kind.values()[DataInputOutputUtil.readINT(in)];
+        }
+    };
+
+    @NotNull
+    @Override
+    public ID<String, Kind> getName() {
+        return NAME;
+    }
+
+    @NotNull
+    @Override
+    public DataIndexer<String, Kind, FileContent> getIndexer() {
+        return inputData -> {
+            if (!StringUtil.contains(inputData.getContentAsText(), "AutoValue")) {
+                return Collections.emptyMap();
+            }
+            final PsiFile psiFile = inputData.getPsiFile();
+            if (!(psiFile instanceof PsiJavaFile)) {
+                return Collections.emptyMap();
+            }
+
+            // keyed by qualified name only, so every class is visited once when all keys are processed
+            final Map<String, Kind> autoValueClasses = new HashMap<>();
+            psiFile.accept(new JavaRecursiveElementWalkingVisitor() {
+                @Override
+                public void visitClass(PsiClass aClass) {
+                    final Kind kind = getAnnotatedKind(aClass);
+                    final String qualifiedName = aClass.getQualifiedName();
+                    if (kind != null && qualifiedName != null) {
+                        autoValueClasses.put(qualifiedName, kind);
+                    }
+                    super.visitClass(aClass);
+                }
+            });
+            return autoValueClasses;
+        };
+    }
+
+    @NotNull
+    @Override
+    public KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @NotNull
+    @Override
+    public DataExternalizer<Kind> getValueExternalizer() {
+        return KIND_EXTERNALIZER;
+    }
+
+    @Override
+    public int getVersion() {
+        return 2;
+    }
+
+    @NotNull
+    @Override
+    public FileBasedIndex.InputFilter getInputFilter() {
+        return new DefaultFileTypeSpecificInputFilter(JavaFileType.INSTANCE);
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    static boolean isAutoValueClass(@NotNull PsiClass clazz) {
+        final String qualifiedName = clazz.getQualifiedName();
+        final PsiFile file = clazz.getContainingFile();
+        final VirtualFile virtualFile = file == null ? null : file.getVirtualFile();
+        if (qualifiedName == null || virtualFile == null || DumbService.isDumb(clazz.getProject())) {
+            return getAnnotatedKind(clazz) == Kind.AUTO_VALUE;
+        }
+
+        final List<Kind> kinds = FileBasedIndex.getInstance().getValues(
+                NAME,
+                qualifiedName,
+                GlobalSearchScope.fileScope(clazz.getProject(), virtualFile)
+        );
+        return kinds.contains(Kind.AUTO_VALUE);
+    }
+
+    static boolean isAutoValueBuilderClass(@NotNull PsiClass clazz) {
+        return getAnnotatedKind(clazz) == Kind.BUILDER;
+    }
+
+    @NotNull
+    static List<PsiClass> findAutoValueClasses(@NotNull Project project, @NotNull SearchScope scope) {
+        final List<PsiClass> autoValueClasses = new ArrayList<>();
+        final PsiManager psiManager = PsiManager.getInstance(project);
+        for (VirtualFile file : findAutoValueFiles(project, scope)) {
+            final PsiFile psiFile = psiManager.findFile(file);
+            if (psiFile != null) {
+                autoValueClasses.addAll(findAutoValueClasses(psiFile));
+            }
+        }
+        return autoValueClasses;
+    }
+
+    @NotNull
+    static List<VirtualFile> findAutoValueFiles(@NotNull Project project, @NotNull SearchScope scope) {
+        final FileBasedIndex fileBasedIndex = FileBasedIndex.getInstance();
+        final GlobalSearchScope projectScope = GlobalSearchScope.projectScope(project);
+
+        // a file with several value classes is reported by every one of them
+        final Set<VirtualFile> files = new LinkedHashSet<>();
+        for (String key : fileBasedIndex.getAllKeys(NAME, project)) {
+            fileBasedIndex.processValues(NAME, key, null, (file, kind) -> {
+                if (kind == Kind.AUTO_VALUE && !files.contains(file) && scope.contains(file)) {
+                    files.add(file);
+                }
+                return true;
+            }, projectScope);
+        }
+        return new ArrayList<>(files);
+    }
+
+    @NotNull
+    static List<PsiClass> findAutoValueClasses(@NotNull PsiFile file) {
+        if (!(file instanceof PsiJavaFile)) {
+            return Collections.emptyList();
+        }
+        final List<PsiClass> autoValueClasses = new ArrayList<>();
+        file.accept(new JavaRecursiveElementWalkingVisitor() {
+            @Override
+            public void visitClass(PsiClass aClass) {
+                if ((aClass.getContainingClass() == null || aClass.hasModifierProperty(PsiModifier.STATIC))
+                        && getAnnotatedKind(aClass) == Kind.AUTO_VALUE) {
+                    autoValueClasses.add(aClass);
+                }
+                super.visitClass(aClass);
+            }
+
+            @Override
+            public void visitCodeBlock(PsiCodeBlock block) {
+                // value classes are never declared inside method bodies
+            }
+        });
+        return autoValueClasses;
+    }
+
+    // matches annotation references by text and imports only, nothing is resolved
+    @Nullable
+    private static Kind getAnnotatedKind(@NotNull PsiClass clazz) {
+        final PsiModifierList modifierList = clazz.getModifierList();
+        if (modifierList == null) {
+            return null;
+        }
+        final PsiFile file = clazz.getContainingFile();
+        final PsiImportList importList = file instanceof PsiJavaFile ? ((PsiJavaFile) file).getImportList() : null;
+
+        for (PsiAnnotation annotation : modifierList.getAnnotations()) {
+            final PsiJavaCodeReferenceElement reference = annotation.getNameReferenceElement();
+            if (reference == null) {
+                continue;
+            }
+            final String referenceText = StringUtil.replace(reference.getText(), " ", "");
+            if (AutoValueUtils.AUTO_VALUE.equals(referenceText)) {
+                return Kind.AUTO_VALUE;
+            }
+            if (AUTO_VALUE_BUILDER.equals(referenceText)) {
+                return Kind.BUILDER;
+            }
+            if ("AutoValue".equals(referenceText) && isAutoValueImported(file, importList)) {
+                return Kind.AUTO_VALUE;
+            }
+            if ("AutoValue.Builder".equals(referenceText) && isAutoValueImported(file, importList)) {
+                return Kind.BUILDER;
+            }
+            if ("Builder".equals(referenceText)
+                    && importList != null
+                    && importList.findSingleClassImportStatement(AUTO_VALUE_BUILDER) != null) {
+                return Kind.BUILDER;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isAutoValueImported(@Nullable PsiFile file, @Nullable PsiImportList importList) {
+        if (file instanceof PsiJavaFile && AUTO_VALUE_PACKAGE.equals(((PsiJavaFile) file).getPackageName())) {
+            return true;
+        }
+        return importList != null && (importList.findSingleClassImportStatement(AutoValueUtils.AUTO_VALUE) != null
+                || importList.findOnDemandImportStatement(AUTO_VALUE_PACKAGE) != null);
+    }
+}
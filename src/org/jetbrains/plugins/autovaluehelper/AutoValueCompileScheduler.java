@@ -0,0 +1,129 @@
+package org.jetbrains.plugins.autovaluehelper;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.compiler.CompilerManager;
+import com.intellij.openapi.compiler.CompilerPaths;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.vfs.VfsUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.util.Alarm;
+import com.intellij.util.ui.update.MergingUpdateQueue;
+import com.intellij.util.ui.update.Update;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.util.*;
+
+// compiles just the files of regenerated @AutoValue classes, so AutoValue_X resolves without rebuilding the modules
+@Service
+public final class AutoValueCompileScheduler implements Disposable {
+
+    // generations closer together than this, e.g. a Builder followed by create(), are compiled together
+    private static final int BATCH_DELAY_MS = 1000;
+
+    @NotNull
+    private final Project project;
+    @NotNull
+    private final MergingUpdateQueue queue;
+    private final Set<VirtualFile> pendingFiles = Collections.synchronizedSet(new LinkedHashSet<>());
+
+    @NotNull
+    public static AutoValueCompileScheduler getInstance(@NotNull Project project) {
+        return ServiceManager.getService(project, AutoValueCompileScheduler.class);
+    }
+
+    public AutoValueCompileScheduler(@NotNull Project project) {
+        this.project = project;
+        this.queue = new MergingUpdateQueue(
+                "AutoValue compilation",
+                BATCH_DELAY_MS,
+                true,
+                null,
+                this,
+                null,
+                Alarm.ThreadToUse.SWING_THREAD
+        );
+        queue.setRestartTimerOnAdd(true);
+    }
+
+    // called for every file a plan has changed
+    public void schedule(@NotNull PsiFile file) {
+        final VirtualFile virtualFile = file.getVirtualFile();
+        if (virtualFile == null) {
+            return;
+        }
+        pendingFiles.add(virtualFile);
+        queue.queue(Update.create(this, this::compile));
+    }
+
+    private void compile() {
+        final CompilerManager compilerManager = CompilerManager.getInstance(project);
+        // the files stay pending until the running build is over
+        if (compilerManager.isCompilationActive()) {
+            queue.queue(Update.create(this, this::compile));
+            return;
+        }
+
+        final List<VirtualFile> files = new ArrayList<>();
+        synchronized (pendingFiles) {
+            for (VirtualFile file : pendingFiles) {
+                if (file.isValid()) {
+                    files.add(file);
+                }
+            }
+            pendingFiles.clear();
+        }
+        if (files.isEmpty()) {
+            return;
+        }
+
+        // the build reads the files from disk
+        final FileDocumentManager fileDocumentManager = FileDocumentManager.getInstance();
+        for (VirtualFile file : files) {
+            final Document document = fileDocumentManager.getCachedDocument(file);
+            if (document != null) {
+                fileDocumentManager.saveDocument(document);
+            }
+        }
+
+        final File[] generatedRoots = findGeneratedSourceRoots(files);
+        compilerManager.compile(files.toArray(VirtualFile.EMPTY_ARRAY), (aborted, errors, warnings, compileContext) -> {
+            // only the roots the annotation processor wrote to are refreshed, not the whole project
+            if (!aborted && !project.isDisposed() && generatedRoots.length > 0) {
+                VfsUtil.markDirtyAndRefresh(true, true, true, generatedRoots);
+            }
+        });
+    }
+
+    @NotNull
+    private File[] findGeneratedSourceRoots(@NotNull List<VirtualFile> files) {
+        final ProjectFileIndex fileIndex = ProjectFileIndex.getInstance(project);
+        final Set<File> generatedRoots = new LinkedHashSet<>();
+        for (VirtualFile file : files) {
+            final Module module = fileIndex.getModuleForFile(file);
+            if (module == null) {
+                continue;
+            }
+            final String path = CompilerPaths.getAnnotationProcessorsGenerationPath(
+                    module,
+                    fileIndex.isInTestSourceContent(file)
+            );
+            if (path != null) {
+                generatedRoots.add(new File(path));
+            }
+        }
+        return generatedRoots.toArray(new File[0]);
+    }
+
+    @Override
+    public void dispose() {
+        pendingFiles.clear();
+    }
+}
@@ -0,0 +1,111 @@
+package org.jetbrains.plugins.autovaluehelper;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class AutoValueGenerationRun {
+
+    public enum Phase {
+        COLLECT, RENDER, DIFF, MUTATE, SHORTEN, REFORMAT
+    }
+
+    @NotNull
+    private final String generatorName;
+    @NotNull
+    private final String className;
+    private final long timestamp = System.currentTimeMillis();
+    private final Map<Phase, Long> durations = new EnumMap<>(Phase.class);
+    private int propertyCount;
+    private int hierarchySize;
+    private int changedMembers;
+    private int psiMutations;
+
+    AutoValueGenerationRun(@NotNull String generatorName, @NotNull String className) {
+        this.generatorName = generatorName;
+        this.className = className;
+    }
+
+    synchronized void addDuration(@NotNull Phase phase, long nanos) {
+        durations.merge(phase, nanos, Long::sum);
+    }
+
+    synchronized long getDurationNanos(@NotNull Phase phase) {
+        return durations.getOrDefault(phase, 0L);
+    }
+
+    public synchronized long getDurationMillis(@NotNull Phase phase) {
+        return TimeUnit.NANOSECONDS.toMillis(getDurationNanos(phase));
+    }
+
+    public synchronized long getTotalMillis() {
+        long total = 0;
+        for (long nanos : durations.values()) {
+            total += nanos;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(total);
+    }
+
+    @NotNull
+    public String getGeneratorName() {
+        return generatorName;
+    }
+
+    @NotNull
+    public String getClassName() {
+        return className;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public int getPropertyCount() {
+        return propertyCount;
+    }
+
+    void setPropertyCount(int propertyCount) {
+        this.propertyCount = propertyCount;
+    }
+
+    public int getHierarchySize() {
+        return hierarchySize;
+    }
+
+    void setHierarchySize(int hierarchySize) {
+        this.hierarchySize = hierarchySize;
+    }
+
+    public int getChangedMembers() {
+        return changedMembers;
+    }
+
+    void setChangedMembers(int changedMembers) {
+        this.changedMembers = changedMembers;
+    }
+
+    public int getPsiMutations() {
+        return psiMutations;
+    }
+
+    void setPsiMutations(int psiMutations) {
+        this.psiMutations = psiMutations;
+    }
+
+    @Override
+    public synchronized String toString() {
+        final StringBuilder result = new StringBuilder()
+                .append(generatorName).append(" for ").append(className)
+                .append(": total ").append(getTotalMillis()).append(" ms");
+        for (Phase phase : Phase.values()) {
+            result.append(", ").append(phase.name().toLowerCase()).append(' ').append(getDurationMillis(phase)).append(" ms");
+        }
+        return result.append(", properties ").append(propertyCount)
+                .append(", hierarchy ").append(hierarchySize)
+                .append(", changed members ").append(changedMembers)
+                .append(", PSI mutations ").append(psiMutations)
+                .toString();
+    }
+}
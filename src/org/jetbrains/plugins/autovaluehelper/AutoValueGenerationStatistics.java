@@ -0,0 +1,131 @@
+package org.jetbrains.plugins.autovaluehelper;
+
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationType;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.util.messages.Topic;
+import com.intellij.util.ui.update.MergingUpdateQueue;
+import com.intellij.util.ui.update.Update;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+@Service
+public final class AutoValueGenerationStatistics implements Disposable {
+
+    public static final Topic<Listener> TOPIC = Topic.create("AutoValue generation runs", Listener.class);
+
+    private static final Logger LOG = Logger.getInstance(AutoValueGenerationStatistics.class);
+    private static final int MAX_RUNS = 500;
+    // slow runs closer together than this, e.g. of one batch regeneration, are reported in one notification
+    private static final int NOTIFICATION_DELAY_MS = 2000;
+
+    public interface Listener {
+        void runRecorded(@NotNull AutoValueGenerationRun run);
+    }
+
+    @NotNull
+    private final Project project;
+    private final Deque<AutoValueGenerationRun> runs = new ArrayDeque<>();
+    private final List<AutoValueGenerationRun> slowRuns = new ArrayList<>();
+    @NotNull
+    private final MergingUpdateQueue notificationQueue;
+
+    public AutoValueGenerationStatistics(@NotNull Project project) {
+        this.project = project;
+        this.notificationQueue = new MergingUpdateQueue(
+                "AutoValue slow generation", NOTIFICATION_DELAY_MS, true, null, this
+        );
+        notificationQueue.setRestartTimerOnAdd(true);
+    }
+
+    @NotNull
+    public static AutoValueGenerationStatistics getInstance(@NotNull Project project) {
+        return ServiceManager.getService(project, AutoValueGenerationStatistics.class);
+    }
+
+    public void record(@NotNull final AutoValueGenerationRun run) {
+        synchronized (runs) {
+            if (runs.size() == MAX_RUNS) {
+                runs.removeFirst();
+            }
+            runs.addLast(run);
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(run.toString());
+        }
+
+        if (run.getTotalMillis() > AutoValueHelperSettings.getInstance().slowGenerationThresholdMs) {
+            synchronized (slowRuns) {
+                slowRuns.add(run);
+            }
+            notificationQueue.queue(Update.create(this, this::notifySlowRuns));
+        }
+
+        ApplicationManager.getApplication().invokeLater(() -> {
+            if (!project.isDisposed()) {
+                project.getMessageBus().syncPublisher(TOPIC).runRecorded(run);
+            }
+        });
+    }
+
+    private void notifySlowRuns() {
+        final List<AutoValueGenerationRun> reportedRuns;
+        synchronized (slowRuns) {
+            reportedRuns = new ArrayList<>(slowRuns);
+            slowRuns.clear();
+        }
+        if (reportedRuns.isEmpty() || project.isDisposed()) {
+            return;
+        }
+
+        AutoValueGenerationRun slowestRun = reportedRuns.get(0);
+        for (AutoValueGenerationRun run : reportedRuns) {
+            if (run.getTotalMillis() > slowestRun.getTotalMillis()) {
+                slowestRun = run;
+            }
+        }
+        final int threshold = AutoValueHelperSettings.getInstance().slowGenerationThresholdMs;
+        final String content = reportedRuns.size() == 1
+                ? String.format("%s for %s took %d ms",
+                slowestRun.getGeneratorName(), slowestRun.getClassName(), slowestRun.getTotalMillis())
+                : String.format("%d generations took longer than %d ms, the slowest was %s for %s with %d ms",
+                reportedRuns.size(), threshold,
+                slowestRun.getGeneratorName(), slowestRun.getClassName(), slowestRun.getTotalMillis());
+        LOG.warn("Slow AutoValue generation, threshold " + threshold + " ms exceeded: " + content);
+        new Notification(
+                AutoValueUtils.NOTIFICATION_GROUP,
+                "Slow AutoValue generation",
+                content,
+                NotificationType.WARNING
+        ).notify(project);
+    }
+
+    @NotNull
+    public List<AutoValueGenerationRun> getRuns() {
+        synchronized (runs) {
+            return new ArrayList<>(runs);
+        }
+    }
+
+    public void clear() {
+        synchronized (runs) {
+            runs.clear();
+        }
+    }
+
+    @Override
+    public void dispose() {
+        synchronized (slowRuns) {
+            slowRuns.clear();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package org.jetbrains.plugins.autovaluehelper;
+
+import com.intellij.openapi.options.Configurable;
+import com.intellij.openapi.ui.ComboBox;
+import com.intellij.ui.JBIntSpinner;
+import com.intellij.ui.components.JBCheckBox;
+import com.intellij.ui.components.JBTextField;
+import com.intellij.util.ui.FormBuilder;
+import org.jetbrains.annotations.Nls;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+
+public class AutoValueHelperConfigurable implements Configurable {
+
+    private JBIntSpinner slowGenerationThreshold;
+    private JBCheckBox generateToBuilder;
+    private JBCheckBox chooseWithers;
+    private JBCheckBox prefixedSetters;
+    private ComboBox<AutoValueHelperSettings.CollectionBuilders> collectionBuilders;
+    private JBCheckBox internInstances;
+    private JBCheckBox updateCreateCallSites;
+    private JBTextField createCallSiteDefault;
+    private JBCheckBox autoRegenerate;
+    private JBIntSpinner autoRegenerateDelay;
+    private JBCheckBox compileAfterGeneration;
+
+    @Nls
+    @Override
+    public String getDisplayName() {
+        return "AutoValue Helper";
+    }
+
+    @Nullable
+    @Override
+    public JComponent createComponent() {
+        slowGenerationThreshold = new JBIntSpinner(1000, 0, Integer.MAX_VALUE, 100);
+        generateToBuilder = new JBCheckBox("Generate toBuilder() with the Builder");
+        chooseWithers = new JBCheckBox(
+                "Choose properties for withX() methods when generating the Builder (requires the auto-value-with extension)"
+        );
+        prefixedSetters = new JBCheckBox("Name Builder setters setFoo() when every getter has a get/is prefix");
+        collectionBuilders = new ComboBox<>(AutoValueHelperSettings.CollectionBuilders.values());
+        internInstances = new JBCheckBox("Intern instances returned by create() and Builder.build() (requires Guava)");
+        updateCreateCallSites = new JBCheckBox("Update call sites when the create() parameters change");
+        createCallSiteDefault = new JBTextField();
+        createCallSiteDefault.getEmptyText().setText("Default value of the parameter type");
+        autoRegenerate = new JBCheckBox("Regenerate the Builder and create() when getters change");
+        autoRegenerateDelay = new JBIntSpinner(500, 100, 60000, 100);
+        compileAfterGeneration = new JBCheckBox("Compile changed classes so AutoValue_X is updated without a rebuild");
+        return FormBuilder.createFormBuilder()
+                .addComponent(generateToBuilder)
+                .addComponent(chooseWithers)
+                .addComponent(prefixedSetters)
+                .addLabeledComponent("Builder methods for Guava immutable collections:", collectionBuilders)
+                .addComponent(internInstances)
+                .addComponent(updateCreateCallSites)
+                .addLabeledComponent("Argument for new create() parameters:", createCallSiteDefault)
+                .addComponent(autoRegenerate)
+                .addLabeledComponent("Wait for edits to settle for (ms):", autoRegenerateDelay)
+                .addComponent(compileAfterGeneration)
+                .addLabeledComponent("Warn when a generation takes longer than (ms):", slowGenerationThreshold)
+                .addComponentFillVertically(new JPanel(), 0)
+                .getPanel();
+    }
+
+    @Override
+    public boolean isModified() {
+        final AutoValueHelperSettings settings = AutoValueHelperSettings.getInstance();
+        return slowGenerationThreshold.getNumber() != settings.slowGenerationThresholdMs
+                || generateToBuilder.isSelected() != settings.generateToBuilder
+                || chooseWithers.isSelected() != settings.chooseWithers
+                || prefixedSetters.isSelected() != settings.prefixedSetters
+                || collectionBuilders.getSelectedItem() != settings.collectionBuilders
+                || internInstances.isSelected() != settings.internInstances
+                || updateCreateCallSites.isSelected() != settings.updateCreateCallSites
+                || !createCallSiteDefault.getText().trim().equals(settings.createCallSiteDefault)
+                || autoRegenerate.isSelected() != settings.autoRegenerate
+                || autoRegenerateDelay.getNumber() != settings.autoRegenerateDelayMs
+                || compileAfterGeneration.isSelected() != settings.compileAfterGeneration;
+    }
+
+    @Override
+    public void apply() {
+        final AutoValueHelperSettings settings = AutoValueHelperSettings.getInstance();
+        settings.slowGenerationThresholdMs = slowGenerationThreshold.getNumber();
+        settings.generateToBuilder = generateToBuilder.isSelected();
+        settings.chooseWithers = chooseWithers.isSelected();
+        settings.prefixedSetters = prefixedSetters.isSelected();
+        settings.collectionBuilders = (AutoValueHelperSettings.CollectionBuilders) collectionBuilders.getSelectedItem();
+        settings.internInstances = internInstances.isSelected();
+        settings.updateCreateCallSites = updateCreateCallSites.isSelected();
+        settings.createCallSiteDefault = createCallSiteDefault.getText().trim();
+        settings.autoRegenerate = autoRegenerate.isSelected();
+        settings.autoRegenerateDelayMs = autoRegenerateDelay.getNumber();
+        settings.compileAfterGeneration = compileAfterGeneration.isSelected();
+    }
+
+    @Override
+    public void reset() {
+        final AutoValueHelperSettings settings = AutoValueHelperSettings.getInstance();
+        slowGenerationThreshold.setNumber(settings.slowGenerationThresholdMs);
+        generateToBuilder.setSelected(settings.generateToBuilder);
+        chooseWithers.setSelected(settings.chooseWithers);
+        prefixedSetters.setSelected(settings.prefixedSetters);
+        collectionBuilders.setSelectedItem(settings.collectionBuilders);
+        internInstances.setSelected(settings.internInstances);
+        updateCreateCallSites.setSelected(settings.updateCreateCallSites);
+        createCallSiteDefault.setText(settings.createCallSiteDefault);
+        autoRegenerate.setSelected(settings.autoRegenerate);
+        autoRegenerateDelay.setNumber(settings.autoRegenerateDelayMs);
+        compileAfterGeneration.setSelected(settings.compileAfterGeneration);
+    }
+
+    @Override
+    public void disposeUIResources() {
+        slowGenerationThreshold = null;
+        generateToBuilder = null;
+        chooseWithers = null;
+        prefixedSetters = null;
+        collectionBuilders = null;
+        internInstances = null;
+        updateCreateCallSites = null;
+        createCallSiteDefault = null;
+        autoRegenerate = null;
+        autoRegenerateDelay = null;
+        compileAfterGeneration = null;
+    }
+}
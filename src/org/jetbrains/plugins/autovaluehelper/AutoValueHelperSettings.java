@@ -0,0 +1,63 @@
+package org.jetbrains.plugins.autovaluehelper;
+
+import com.intellij.openapi.components.PersistentStateComponent;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.components.State;
+import com.intellij.openapi.components.Storage;
+import com.intellij.util.xmlb.XmlSerializerUtil;
+import org.jetbrains.annotations.NotNull;
+
+@Service
+@State(name = "AutoValueHelperSettings", storages = @Storage("autoValueHelper.xml"))
+public final class AutoValueHelperSettings implements PersistentStateComponent<AutoValueHelperSettings> {
+
+    public enum CollectionBuilders {
+        NONE("Setter only"),
+        ALONGSIDE("Setter and xxxBuilder()"),
+        INSTEAD("xxxBuilder() only");
+
+        @NotNull
+        private final String presentableName;
+
+        CollectionBuilders(@NotNull String presentableName) {
+            this.presentableName = presentableName;
+        }
+
+        @Override
+        public String toString() {
+            return presentableName;
+        }
+    }
+
+    public int slowGenerationThresholdMs = 1000;
+    public boolean generateToBuilder = false;
+    public boolean chooseWithers = false;
+    // setFoo() instead of getFoo() in the Builder, like AutoValue when every getter has a get/is prefix
+    public boolean prefixedSetters = false;
+    public CollectionBuilders collectionBuilders = CollectionBuilders.NONE;
+    public boolean internInstances = false;
+    public boolean updateCreateCallSites = false;
+    // argument passed for a new create() parameter, empty for the default value of its type
+    public String createCallSiteDefault = "";
+    public boolean autoRegenerate = false;
+    // edits closer together than this are coalesced into one regeneration
+    public int autoRegenerateDelayMs = 500;
+    public boolean compileAfterGeneration = false;
+
+    @NotNull
+    public static AutoValueHelperSettings getInstance() {
+        return ServiceManager.getService(AutoValueHelperSettings.class);
+    }
+
+    @NotNull
+    @Override
+    public AutoValueHelperSettings getState() {
+        return this;
+    }
+
+    @Override
+    public void loadState(@NotNull AutoValueHelperSettings state) {
+        XmlSerializerUtil.copyBean(state, this);
+    }
+}
@@ -0,0 +1,451 @@
+package org.jetbrains.plugins.autovaluehelper;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Condition;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.*;
+import com.intellij.psi.codeStyle.CodeStyleManager;
+import com.intellij.psi.codeStyle.JavaCodeStyleManager;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+public class AutoValueMemberPlan implements Runnable {
+
+    private static final String[] COMPARED_MODIFIERS = {
+            PsiModifier.PUBLIC, PsiModifier.PROTECTED, PsiModifier.PRIVATE,
+            PsiModifier.STATIC, PsiModifier.ABSTRACT, PsiModifier.FINAL, PsiModifier.DEFAULT
+    };
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private enum Kind {
+        ADD, REPLACE, DELETE
+    }
+
+    private static class Change {
+        @NotNull
+        private final Kind kind;
+        @NotNull
+        private final PsiElement target;
+        @Nullable
+        private final PsiElement desired;
+
+        private Change(@NotNull Kind kind, @NotNull PsiElement target, @Nullable PsiElement desired) {
+            this.kind = kind;
+            this.target = target;
+            this.desired = desired;
+        }
+    }
+
+    @NotNull
+    private final Project project;
+    @NotNull
+    private final AutoValueGenerationRun generationRun;
+    private final List<Change> changes = new ArrayList<>();
+    // cleared where no compilation may be started, e.g. in the headless starter
+    private boolean compileAfterRun = true;
+
+    public AutoValueMemberPlan(@NotNull Project project, @NotNull AutoValueGenerationRun generationRun) {
+        this.project = project;
+        this.generationRun = generationRun;
+    }
+
+    @NotNull
+    public AutoValueGenerationRun getGenerationRun() {
+        return generationRun;
+    }
+
+    public void skipCompilation() {
+        compileAfterRun = false;
+    }
+
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    // human readable list of pending changes, e.g. "ADD foo(java.lang.String)"
+    @NotNull
+    public List<String> getChangeDescriptions() {
+        final List<String> descriptions = new ArrayList<>(changes.size());
+        for (Change change : changes) {
+            final PsiElement member = change.desired != null ? change.desired : change.target;
+            // an annotation is described together with the method it is added to or removed from
+            final PsiMethod annotatedMethod = member instanceof PsiAnnotation
+                    ? PsiTreeUtil.getParentOfType(change.target, PsiMethod.class, false)
+                    : null;
+            descriptions.add(change.kind + " " + describe(member)
+                    + (annotatedMethod != null ? " on " + describe(annotatedMethod) : ""));
+        }
+        return descriptions;
+    }
+
+    public boolean isValid() {
+        for (Change change : changes) {
+            if (!change.target.isValid()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // true when a pending change replaces or deletes the element or a member around it
+    public boolean isRewritten(@NotNull PsiElement element) {
+        for (Change change : changes) {
+            if (change.kind != Kind.ADD && PsiTreeUtil.isAncestor(change.target, element, false)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // true when a pending change replaces exactly this element
+    public boolean isReplaced(@NotNull PsiElement element) {
+        for (Change change : changes) {
+            if (change.kind == Kind.REPLACE && change.target == element) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void addClass(@NotNull PsiClass target, @NotNull PsiClass desired) {
+        changes.add(new Change(Kind.ADD, target, desired));
+    }
+
+    public void deleteMethod(@NotNull PsiMethod target) {
+        changes.add(new Change(Kind.DELETE, target, null));
+    }
+
+    public void syncField(@NotNull PsiClass target, @NotNull PsiField desired) {
+        final PsiField existing = target.findFieldByName(desired.getName(), false);
+        if (existing == null) {
+            changes.add(new Change(Kind.ADD, target, desired));
+        } else if (!isSameField(existing, desired)) {
+            changes.add(new Change(Kind.REPLACE, existing, desired));
+        }
+    }
+
+    public void deleteField(@NotNull PsiField target) {
+        changes.add(new Change(Kind.DELETE, target, null));
+    }
+
+    public void addReference(@NotNull PsiReferenceList target, @NotNull PsiJavaCodeReferenceElement desired) {
+        changes.add(new Change(Kind.ADD, target, desired));
+    }
+
+    public void deleteReference(@NotNull PsiJavaCodeReferenceElement target) {
+        changes.add(new Change(Kind.DELETE, target, null));
+    }
+
+    // only the annotation is added, the rest of the member keeps its hand-written text and formatting
+    public void addAnnotation(@NotNull PsiModifierList target, @NotNull PsiAnnotation desired) {
+        changes.add(new Change(Kind.ADD, target, desired));
+    }
+
+    public void deleteAnnotation(@NotNull PsiAnnotation target) {
+        changes.add(new Change(Kind.DELETE, target, null));
+    }
+
+    // existing methods are matched by signature first, then by name if that method is the only one with the name
+    // and was generated from the same template; hand-written overloads are never replaced, unchanged methods are left untouched,
+    // other methods are deleted when deleteUnmatched accepts them
+    public void syncMethods(
+            @NotNull PsiClass target,
+            @NotNull List<PsiMethod> desiredMethods,
+            @Nullable Condition<? super PsiMethod> deleteUnmatched
+    ) {
+        final long start = System.nanoTime();
+        final Set<PsiMethod> claimedMethods = new HashSet<>();
+        final Map<PsiMethod, PsiMethod> matchedMethods = new LinkedHashMap<>();
+        for (PsiMethod desired : desiredMethods) {
+            final PsiMethod existing = target.findMethodBySignature(desired, false);
+            if (existing != null && claimedMethods.add(existing)) {
+                matchedMethods.put(desired, existing);
+            }
+        }
+        for (PsiMethod desired : desiredMethods) {
+            if (matchedMethods.containsKey(desired)) {
+                continue;
+            }
+            final PsiMethod[] existingMethods = target.findMethodsByName(desired.getName(), false);
+            if (existingMethods.length == 1
+                    && !existingMethods[0].isConstructor()
+                    && isSameTemplate(existingMethods[0], desired)
+                    && claimedMethods.add(existingMethods[0])) {
+                matchedMethods.put(desired, existingMethods[0]);
+            }
+        }
+
+        for (PsiMethod desired : desiredMethods) {
+            final PsiMethod existing = matchedMethods.get(desired);
+            if (existing == null) {
+                changes.add(new Change(Kind.ADD, target, desired));
+            } else if (!isSameMethod(existing, desired)) {
+                changes.add(new Change(Kind.REPLACE, existing, desired));
+            }
+        }
+
+        if (deleteUnmatched != null) {
+            for (PsiMethod existing : target.getMethods()) {
+                if (!claimedMethods.contains(existing) && deleteUnmatched.value(existing)) {
+                    changes.add(new Change(Kind.DELETE, existing, null));
+                }
+            }
+        }
+        generationRun.addDuration(AutoValueGenerationRun.Phase.DIFF, System.nanoTime() - start);
+    }
+
+    @Override
+    public void run() {
+        final int[] psiMutations = {0};
+        final Set<PsiFile> changedFiles = new LinkedHashSet<>();
+        final Disposable listenerDisposable = Disposer.newDisposable();
+        PsiManager.getInstance(project).addPsiTreeChangeListener(new PsiTreeChangeAdapter() {
+            @Override
+            public void childAdded(@NotNull PsiTreeChangeEvent event) {
+                psiMutations[0]++;
+            }
+
+            @Override
+            public void childRemoved(@NotNull PsiTreeChangeEvent event) {
+                psiMutations[0]++;
+            }
+
+            @Override
+            public void childReplaced(@NotNull PsiTreeChangeEvent event) {
+                psiMutations[0]++;
+            }
+
+            @Override
+            public void childMoved(@NotNull PsiTreeChangeEvent event) {
+                psiMutations[0]++;
+            }
+
+            @Override
+            public void childrenChanged(@NotNull PsiTreeChangeEvent event) {
+                psiMutations[0]++;
+            }
+        }, listenerDisposable);
+
+        try {
+            long start = System.nanoTime();
+            final List<PsiElement> affectedElements = new ArrayList<>();
+            for (Change change : changes) {
+                if (!change.target.isValid()) {
+                    continue;
+                }
+                final PsiFile changedFile = change.target.getContainingFile();
+                if (changedFile != null) {
+                    changedFiles.add(changedFile);
+                }
+                switch (change.kind) {
+                    case ADD:
+                        assert change.desired != null;
+                        // another plan for the same class may have added a shared field already
+                        if (change.desired instanceof PsiField && change.target instanceof PsiClass
+                                && ((PsiClass) change.target).findFieldByName(((PsiField) change.desired).getName(), false) != null) {
+                            break;
+                        }
+                        if (change.desired instanceof PsiAnnotation && change.target instanceof PsiModifierList) {
+                            final String qualifiedName = ((PsiAnnotation) change.desired).getQualifiedName();
+                            assert qualifiedName != null;
+                            final PsiAnnotation added = ((PsiModifierList) change.target).addAnnotation(qualifiedName);
+                            // addAnnotation() only knows the name, attributes are taken over from the desired one
+                            affectedElements.add(((PsiAnnotation) change.desired).getParameterList().getAttributes().length == 0
+                                    ? added
+                                    : added.replace(change.desired));
+                            break;
+                        }
+                        affectedElements.add(change.target.add(change.desired));
+                        break;
+                    case REPLACE:
+                        assert change.desired != null;
+                        affectedElements.add(change.target.replace(change.desired));
+                        break;
+                    case DELETE:
+                        change.target.delete();
+                        break;
+                }
+            }
+            generationRun.addDuration(AutoValueGenerationRun.Phase.MUTATE, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            final JavaCodeStyleManager javaCodeStyleManager = JavaCodeStyleManager.getInstance(project);
+            final List<PsiElement> shortenedElements = new ArrayList<>(affectedElements.size());
+            for (PsiElement element : affectedElements) {
+                if (element.isValid()) {
+                    shortenedElements.add(javaCodeStyleManager.shortenClassReferences(element));
+                }
+            }
+            generationRun.addDuration(AutoValueGenerationRun.Phase.SHORTEN, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            final CodeStyleManager codeStyleManager = CodeStyleManager.getInstance(project);
+            for (PsiElement element : shortenedElements) {
+                if (element.isValid()) {
+                    codeStyleManager.reformat(element);
+                }
+            }
+            generationRun.addDuration(AutoValueGenerationRun.Phase.REFORMAT, System.nanoTime() - start);
+        } finally {
+            Disposer.dispose(listenerDisposable);
+        }
+
+        generationRun.setChangedMembers(changes.size());
+        generationRun.setPsiMutations(psiMutations[0]);
+        AutoValueGenerationStatistics.getInstance(project).record(generationRun);
+
+        // the annotation processor has to run again before AutoValue_X matches the new members
+        if (compileAfterRun && AutoValueHelperSettings.getInstance().compileAfterGeneration) {
+            final AutoValueCompileScheduler compileScheduler = AutoValueCompileScheduler.getInstance(project);
+            for (PsiFile changedFile : changedFiles) {
+                compileScheduler.schedule(changedFile);
+            }
+        }
+    }
+
+    @NotNull
+    private static String describe(@NotNull PsiElement member) {
+        if (member instanceof PsiMethod) {
+            final StringBuilder description = new StringBuilder(((PsiMethod) member).getName()).append('(');
+            final PsiParameter[] parameters = ((PsiMethod) member).getParameterList().getParameters();
+            for (int i = 0; i < parameters.length; i++) {
+                if (i > 0) {
+                    description.append(", ");
+                }
+                description.append(parameters[i].getType().getCanonicalText());
+            }
+            return description.append(')').toString();
+        }
+        if (member instanceof PsiClass) {
+            return "class " + ((PsiClass) member).getName();
+        }
+        if (member instanceof PsiField) {
+            return "field " + ((PsiField) member).getName();
+        }
+        if (member instanceof PsiAnnotation && ((PsiAnnotation) member).getQualifiedName() != null) {
+            return "@" + StringUtil.getShortName(((PsiAnnotation) member).getQualifiedName());
+        }
+        return member.getText();
+    }
+
+    private static boolean isSameField(@NotNull PsiField existing, @NotNull PsiField desired) {
+        if (!isSameType(existing.getType(), desired.getType())
+                || !isSameModifiers(existing.getModifierList(), desired.getModifierList())) {
+            return false;
+        }
+        final PsiExpression existingInitializer = existing.getInitializer();
+        final PsiExpression desiredInitializer = desired.getInitializer();
+        if (existingInitializer == null || desiredInitializer == null) {
+            return existingInitializer == desiredInitializer;
+        }
+        return WHITESPACE.matcher(existingInitializer.getText()).replaceAll("")
+                .equals(WHITESPACE.matcher(desiredInitializer.getText()).replaceAll(""));
+    }
+
+    private static boolean isSameMethod(@NotNull PsiMethod existing, @NotNull PsiMethod desired) {
+        if (!existing.getName().equals(desired.getName())
+                || !isSameType(existing.getReturnType(), desired.getReturnType())
+                || !isSameModifiers(existing.getModifierList(), desired.getModifierList())) {
+            return false;
+        }
+
+        final PsiParameter[] existingParameters = existing.getParameterList().getParameters();
+        final PsiParameter[] desiredParameters = desired.getParameterList().getParameters();
+        if (existingParameters.length != desiredParameters.length) {
+            return false;
+        }
+        for (int i = 0; i < existingParameters.length; i++) {
+            if (!existingParameters[i].getName().equals(desiredParameters[i].getName())
+                    || !isSameType(existingParameters[i].getType(), desiredParameters[i].getType())
+                    || !isSameModifiers(existingParameters[i].getModifierList(), desiredParameters[i].getModifierList())) {
+                return false;
+            }
+        }
+
+        final PsiCodeBlock existingBody = existing.getBody();
+        final PsiCodeBlock desiredBody = desired.getBody();
+        if (existingBody == null || desiredBody == null) {
+            return existingBody == desiredBody;
+        }
+        return WHITESPACE.matcher(existingBody.getText()).replaceAll("")
+                .equals(WHITESPACE.matcher(desiredBody.getText()).replaceAll(""));
+    }
+
+    // same return type, modifiers and body apart from call arguments, and no parameter the desired method lacks,
+    // e.g. create() of fewer properties
+    private static boolean isSameTemplate(@NotNull PsiMethod existing, @NotNull PsiMethod desired) {
+        if (!isSameType(existing.getReturnType(), desired.getReturnType())
+                || existing.hasModifierProperty(PsiModifier.STATIC) != desired.hasModifierProperty(PsiModifier.STATIC)
+                || existing.hasModifierProperty(PsiModifier.ABSTRACT) != desired.hasModifierProperty(PsiModifier.ABSTRACT)) {
+            return false;
+        }
+        final Set<String> desiredParameterNames = new HashSet<>();
+        for (PsiParameter parameter : desired.getParameterList().getParameters()) {
+            desiredParameterNames.add(parameter.getName());
+        }
+        for (PsiParameter parameter : existing.getParameterList().getParameters()) {
+            if (!desiredParameterNames.contains(parameter.getName())) {
+                return false;
+            }
+        }
+        final PsiCodeBlock existingBody = existing.getBody();
+        final PsiCodeBlock desiredBody = desired.getBody();
+        if (existingBody == null || desiredBody == null) {
+            return existingBody == desiredBody;
+        }
+        return renderTemplate(existingBody, new StringBuilder()).toString()
+                .equals(renderTemplate(desiredBody, new StringBuilder()).toString());
+    }
+
+    @NotNull
+    private static StringBuilder renderTemplate(@NotNull PsiElement element, @NotNull StringBuilder template) {
+        if (element instanceof PsiExpressionList) {
+            return template.append("()");
+        }
+        if (element instanceof PsiWhiteSpace || element instanceof PsiComment) {
+            return template;
+        }
+        if (element.getFirstChild() == null) {
+            return template.append(element.getText());
+        }
+        for (PsiElement child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            renderTemplate(child, template);
+        }
+        return template;
+    }
+
+    private static boolean isSameType(@Nullable PsiType existing, @Nullable PsiType desired) {
+        if (existing == null || desired == null) {
+            return existing == desired;
+        }
+        return existing.getCanonicalText().equals(desired.getCanonicalText());
+    }
+
+    private static boolean isSameModifiers(@Nullable PsiModifierList existing, @Nullable PsiModifierList desired) {
+        if (existing == null || desired == null) {
+            return existing == desired;
+        }
+        for (String modifier : COMPARED_MODIFIERS) {
+            if (existing.hasExplicitModifier(modifier) != desired.hasExplicitModifier(modifier)) {
+                return false;
+            }
+        }
+        return getAnnotationNames(existing).equals(getAnnotationNames(desired));
+    }
+
+    @NotNull
+    private static Set<String> getAnnotationNames(@NotNull PsiModifierList modifierList) {
+        final Set<String> annotationNames = new HashSet<>();
+        for (PsiAnnotation annotation : modifierList.getAnnotations()) {
+            annotationNames.add(annotation.getQualifiedName());
+        }
+        return annotationNames;
+    }
+}
@@ -0,0 +1,222 @@
+package org.jetbrains.plugins.autovaluehelper;
+
+import com.intellij.codeInsight.generation.PsiMethodMember;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+public class AutoValueProperty {
+
+    public static final String NONNULL = "android.support.annotation.NonNull";
+    public static final String NULLABLE = "android.support.annotation.Nullable";
+
+    // optional wrappers whose AutoValue builder setters can also take the unwrapped value
+    private static final Set<String> OPTIONALS = new HashSet<>(Arrays.asList(
+            CommonClassNames.JAVA_UTIL_OPTIONAL,
+            "com.google.common.base.Optional"
+    ));
+    private static final Map<String, PsiPrimitiveType> PRIMITIVE_OPTIONALS = new HashMap<>();
+
+    static {
+        PRIMITIVE_OPTIONALS.put("java.util.OptionalInt", PsiType.INT);
+        PRIMITIVE_OPTIONALS.put("java.util.OptionalLong", PsiType.LONG);
+        PRIMITIVE_OPTIONALS.put("java.util.OptionalDouble", PsiType.DOUBLE);
+    }
+
+    // Guava immutable collections that AutoValue can expose as xxxBuilder() in a Builder
+    private static final Set<String> IMMUTABLE_COLLECTIONS = new HashSet<>(Arrays.asList(
+            "com.google.common.collect.ImmutableList",
+            "com.google.common.collect.ImmutableSet",
+            "com.google.common.collect.ImmutableSortedSet",
+            "com.google.common.collect.ImmutableMap",
+            "com.google.common.collect.ImmutableSortedMap",
+            "com.google.common.collect.ImmutableBiMap",
+            "com.google.common.collect.ImmutableMultiset",
+            "com.google.common.collect.ImmutableMultimap",
+            "com.google.common.collect.ImmutableListMultimap",
+            "com.google.common.collect.ImmutableSetMultimap",
+            "com.google.common.collect.ImmutableTable"
+    ));
+
+    public enum Nullability {
+        NULLABLE, NONNULL, UNKNOWN
+    }
+
+    @NotNull
+    private final PsiMethodMember member;
+    @NotNull
+    private final PsiType type;
+    @NotNull
+    private final Nullability nullability;
+    @Nullable
+    private final String collectionBuilderType;
+    @Nullable
+    private final PsiType unwrappedType;
+    private boolean prefixesStripped;
+
+    AutoValueProperty(@NotNull PsiMethodMember member) {
+        this.member = member;
+
+        final PsiMethod getter = member.getElement();
+        final PsiType returnType = getter.getReturnType();
+        assert returnType != null;
+        this.type = member.getSubstitutor().substitute(returnType);
+
+        final PsiModifierList modifierList = getter.getModifierList();
+        if (modifierList.findAnnotation(NULLABLE) != null) {
+            this.nullability = Nullability.NULLABLE;
+        } else if (modifierList.findAnnotation(NONNULL) != null) {
+            this.nullability = Nullability.NONNULL;
+        } else {
+            this.nullability = Nullability.UNKNOWN;
+        }
+
+        // AutoValue rejects a collection builder for a @Nullable property
+        this.collectionBuilderType = nullability == Nullability.NULLABLE ? null : renderCollectionBuilderType(type);
+        this.unwrappedType = findUnwrappedType(type);
+    }
+
+    @NotNull
+    public PsiMethodMember getMember() {
+        return member;
+    }
+
+    @NotNull
+    public PsiMethod getGetter() {
+        return member.getElement();
+    }
+
+    @NotNull
+    public PsiSubstitutor getSubstitutor() {
+        return member.getSubstitutor();
+    }
+
+    @NotNull
+    public String getName() {
+        return getGetter().getName();
+    }
+
+    // getter name without the get/is prefix, e.g. getFooBar() -> fooBar
+    @NotNull
+    public String getPropertyName() {
+        final String name = getName();
+        if (hasPrefix(name, "get")) {
+            return StringUtil.decapitalize(name.substring(3));
+        }
+        if (hasPrefix(name, "is") && PsiType.BOOLEAN.equals(type)) {
+            return StringUtil.decapitalize(name.substring(2));
+        }
+        return name;
+    }
+
+    // getFooBar() is set by setFooBar() when enabled and, like in AutoValue, every getter of the class has a prefix
+    @NotNull
+    public String getSetterName() {
+        return prefixesStripped && AutoValueHelperSettings.getInstance().prefixedSetters
+                ? "set" + StringUtil.capitalize(getPropertyName())
+                : getName();
+    }
+
+    // the name AutoValue and its extensions use, e.g. as the JSON key: fooBar when every getter has a prefix, else getFooBar
+    @NotNull
+    public String getAutoValueName() {
+        return prefixesStripped ? getPropertyName() : getName();
+    }
+
+    boolean hasGetterPrefix() {
+        return !getPropertyName().equals(getName());
+    }
+
+    void setPrefixesStripped(boolean prefixesStripped) {
+        this.prefixesStripped = prefixesStripped;
+    }
+
+    @NotNull
+    public PsiType getType() {
+        return type;
+    }
+
+    @NotNull
+    public Nullability getNullability() {
+        return nullability;
+    }
+
+    // e.g. com.google.common.collect.ImmutableList.Builder<java.lang.String>, null for other types and @Nullable properties
+    @Nullable
+    public String getCollectionBuilderType() {
+        return collectionBuilderType;
+    }
+
+    // value type of an Optional property, e.g. String for Optional<String> and int for OptionalInt
+    @Nullable
+    public PsiType getUnwrappedType() {
+        return unwrappedType;
+    }
+
+    @NotNull
+    public String getCollectionBuilderName() {
+        return getPropertyName() + "Builder";
+    }
+
+    @Nullable
+    private static PsiType findUnwrappedType(@NotNull PsiType type) {
+        if (!(type instanceof PsiClassType)) {
+            return null;
+        }
+        final PsiClass typeClass = ((PsiClassType) type).resolve();
+        final String qualifiedName = typeClass == null ? null : typeClass.getQualifiedName();
+        if (qualifiedName == null) {
+            return null;
+        }
+        if (PRIMITIVE_OPTIONALS.containsKey(qualifiedName)) {
+            return PRIMITIVE_OPTIONALS.get(qualifiedName);
+        }
+        if (!OPTIONALS.contains(qualifiedName)) {
+            return null;
+        }
+
+        final PsiType[] parameters = ((PsiClassType) type).getParameters();
+        if (parameters.length != 1) {
+            return null;
+        }
+        if (parameters[0] instanceof PsiWildcardType) {
+            return ((PsiWildcardType) parameters[0]).isExtends() ? ((PsiWildcardType) parameters[0]).getBound() : null;
+        }
+        return parameters[0];
+    }
+
+    @Nullable
+    private static String renderCollectionBuilderType(@NotNull PsiType type) {
+        if (!(type instanceof PsiClassType)) {
+            return null;
+        }
+        final PsiClass typeClass = ((PsiClassType) type).resolve();
+        final String qualifiedName = typeClass == null ? null : typeClass.getQualifiedName();
+        if (qualifiedName == null || !IMMUTABLE_COLLECTIONS.contains(qualifiedName)) {
+            return null;
+        }
+
+        final PsiType[] parameters = ((PsiClassType) type).getParameters();
+        final StringBuilder builderType = new StringBuilder(qualifiedName).append(".Builder");
+        if (parameters.length > 0) {
+            builderType.append('<');
+            for (int i = 0; i < parameters.length; i++) {
+                if (i > 0) {
+                    builderType.append(',');
+                }
+                builderType.append(parameters[i].getCanonicalText());
+            }
+            builderType.append('>');
+        }
+        return builderType.toString();
+    }
+
+    private static boolean hasPrefix(@NotNull String name, @NotNull String prefix) {
+        return name.length() > prefix.length()
+                && name.startsWith(prefix)
+                && Character.isUpperCase(name.charAt(prefix.length()));
+    }
+}
@@ -0,0 +1,170 @@
+package org.jetbrains.plugins.autovaluehelper;
+
+import com.intellij.codeInsight.generation.PsiMethodMember;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.psi.*;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.MethodSignature;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.psi.util.PsiUtil;
+import com.intellij.psi.util.TypeConversionUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+public class AutoValuePropertyModel {
+
+    private static final Set<String> OBJECT_METHODS = new HashSet<>(Arrays.asList("hashCode", "toString"));
+
+    @NotNull
+    private final List<AutoValueProperty> properties;
+    @NotNull
+    private final Map<String, String> fingerprint;
+    private final int hierarchySize;
+
+    private AutoValuePropertyModel(@NotNull List<AutoValueProperty> properties, int hierarchySize) {
+        this.properties = Collections.unmodifiableList(properties);
+        this.hierarchySize = hierarchySize;
+
+        final Map<String, String> fingerprint = new LinkedHashMap<>();
+        for (AutoValueProperty property : properties) {
+            fingerprint.put(property.getName(), property.getType().getCanonicalText());
+        }
+        this.fingerprint = Collections.unmodifiableMap(fingerprint);
+    }
+
+    @NotNull
+    public static AutoValuePropertyModel getInstance(@NotNull final PsiClass clazz) {
+        return CachedValuesManager.getCachedValue(clazz, () -> CachedValueProvider.Result.create(
+                build(clazz),
+                PsiModificationTracker.JAVA_STRUCTURE_MODIFICATION_COUNT,
+                ProjectRootManager.getInstance(clazz.getProject())
+        ));
+    }
+
+    @NotNull
+    public List<AutoValueProperty> getProperties() {
+        return properties;
+    }
+
+    // property names mapped to canonical types in declaration order, cheap to compare with generated members
+    @NotNull
+    public Map<String, String> getFingerprint() {
+        return fingerprint;
+    }
+
+    public boolean isEmpty() {
+        return properties.isEmpty();
+    }
+
+    // number of classes and interfaces visited while collecting properties
+    public int getHierarchySize() {
+        return hierarchySize;
+    }
+
+    @NotNull
+    private static AutoValuePropertyModel build(@NotNull final PsiClass clazz) {
+        // breadth-first walk of the hierarchy, every class and interface is visited once
+        final List<PsiClass> hierarchy = new ArrayList<>();
+        final Set<PsiClass> visitedClasses = new HashSet<>();
+        final Queue<PsiClass> classesToExtractMethodsFrom = new ArrayDeque<>();
+        classesToExtractMethodsFrom.add(clazz);
+        visitedClasses.add(clazz);
+        while (!classesToExtractMethodsFrom.isEmpty()) {
+            final PsiClass currentClass = classesToExtractMethodsFrom.poll();
+            hierarchy.add(currentClass);
+
+            for (PsiClass interfaze : currentClass.getInterfaces()) {
+                if (visitedClasses.add(interfaze)) {
+                    classesToExtractMethodsFrom.add(interfaze);
+                }
+            }
+
+            final PsiClass superClass = currentClass.getSuperClass();
+            if (superClass != null && visitedClasses.add(superClass)) {
+                classesToExtractMethodsFrom.add(superClass);
+            }
+        }
+
+        // the most derived declaration of a getter wins
+        final Map<MethodSignature, AutoValueProperty> propertiesBySignature = new HashMap<>();
+        final List<List<AutoValueProperty>> propertiesByClass = new ArrayList<>(hierarchy.size());
+        for (PsiClass currentClass : hierarchy) {
+            final List<AutoValueProperty> classProperties = new ArrayList<>();
+            for (PsiMethodMember member : collectMethodsInClass(currentClass, clazz)) {
+                final MethodSignature signature = member.getElement().getSignature(member.getSubstitutor());
+                if (!propertiesBySignature.containsKey(signature)) {
+                    final AutoValueProperty property = new AutoValueProperty(member);
+                    propertiesBySignature.put(signature, property);
+                    classProperties.add(property);
+                }
+            }
+            propertiesByClass.add(classProperties);
+        }
+
+        // properties of the topmost types go first
+        final List<AutoValueProperty> properties = new ArrayList<>(propertiesBySignature.size());
+        for (int i = propertiesByClass.size() - 1; i >= 0; i--) {
+            properties.addAll(propertiesByClass.get(i));
+        }
+
+        // like AutoValue, prefixes are only stripped when every getter has one
+        boolean prefixesStripped = !properties.isEmpty();
+        for (AutoValueProperty property : properties) {
+            prefixesStripped &= property.hasGetterPrefix();
+        }
+        for (AutoValueProperty property : properties) {
+            property.setPrefixesStripped(prefixesStripped);
+        }
+        return new AutoValuePropertyModel(properties, hierarchy.size());
+    }
+
+    @NotNull
+    private static List<PsiMethodMember> collectMethodsInClass(
+            @NotNull final PsiClass currentClass,
+            @NotNull final PsiClass clazz
+    ) {
+        final List<PsiMethodMember> classMethodMembers = new ArrayList<>();
+
+        for (final PsiMethod method : currentClass.getMethods()) {
+            if (!method.hasModifierProperty(PsiModifier.ABSTRACT)) {
+                continue;
+            }
+            if (method.isConstructor()) {
+                continue;
+            }
+            // withX() copy methods, toBuilder() and abstract hashCode()/toString() are not properties
+            if (method.getParameterList().getParametersCount() > 0
+                    || PsiType.VOID.equals(method.getReturnType())
+                    || isBuilderType(method.getReturnType())
+                    || OBJECT_METHODS.contains(method.getName())) {
+                continue;
+            }
+
+            final PsiClass containingClass = method.getContainingClass();
+            if (containingClass != null) {
+                classMethodMembers.add(buildMethodMember(method, containingClass, clazz));
+            }
+        }
+
+        return classMethodMembers;
+    }
+
+    private static boolean isBuilderType(@Nullable PsiType type) {
+        final PsiClass typeClass = PsiUtil.resolveClassInClassTypeOnly(type);
+        return typeClass != null && AutoValueClassIndex.isAutoValueBuilderClass(typeClass);
+    }
+
+    @NotNull
+    private static PsiMethodMember buildMethodMember(
+            @NotNull final PsiMethod method,
+            @NotNull final PsiClass containingClass,
+            @NotNull final PsiClass clazz
+    ) {
+        return new PsiMethodMember(method,
+                TypeConversionUtil.getSuperClassSubstitutor(containingClass, clazz, PsiSubstitutor.EMPTY)
+        );
+    }
+}
@@ -0,0 +1,45 @@
+package org.jetbrains.plugins.autovaluehelper;
+
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.jetbrains.annotations.NotNull;
+
+class AutoValueRegenerateFix implements LocalQuickFix {
+
+    @NotNull
+    private final String name;
+    @NotNull
+    private final AutoValueBaseHelperHandler handler;
+
+    AutoValueRegenerateFix(@NotNull String name, @NotNull AutoValueBaseHelperHandler handler) {
+        this.name = name;
+        this.handler = handler;
+    }
+
+    @NotNull
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @NotNull
+    @Override
+    public String getFamilyName() {
+        return "Regenerate AutoValue members";
+    }
+
+    @Override
+    public void applyFix(@NotNull Project project, @NotNull ProblemDescriptor descriptor) {
+        final PsiClass targetClass = PsiTreeUtil.getParentOfType(descriptor.getPsiElement(), PsiClass.class);
+        if (targetClass == null) {
+            return;
+        }
+        final AutoValueMemberPlan plan = handler.buildPlan(project, targetClass);
+        if (plan != null && !plan.isEmpty()) {
+            plan.run();
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package org.jetbrains.plugins.autovaluehelper;
+
+import com.google.gson.GsonBuilder;
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.ide.impl.ProjectUtil;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ApplicationStarter;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ModuleManager;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Ref;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.search.GlobalSearchScope;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.plugins.autovaluehelper.builder.AutoValueBuilderHandler;
+import org.jetbrains.plugins.autovaluehelper.comparator.AutoValueComparatorHandler;
+import org.jetbrains.plugins.autovaluehelper.creator.AutoValueCreateHandler;
+import org.jetbrains.plugins.autovaluehelper.serialization.AutoValueSerializationHandler;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// headless entry point: idea autovalue <project> [--write] [--report=<file>] [--generators=builder,create,serialization,comparator]
+public class AutoValueRegenerateStarter implements ApplicationStarter {
+
+    private static final Logger LOG = Logger.getInstance(AutoValueRegenerateStarter.class);
+
+    private static final String COMMAND_NAME = "autovalue";
+    private static final String COMMAND_TITLE = "Regenerate AutoValue Members";
+    // files are processed in chunks so only a bounded number of PSI trees and plans are alive at once
+    private static final int CHUNK_SIZE = 200;
+
+    private static final int EXIT_OK = 0;
+    private static final int EXIT_DRIFT = 1;
+    private static final int EXIT_ERROR = 2;
+
+    private static class Options {
+        private String projectPath;
+        private boolean write;
+        @Nullable
+        private String reportPath;
+        private final Map<String, AutoValueBaseHelperHandler> handlers = new LinkedHashMap<>();
+    }
+
+    private static class Report {
+        private String project;
+        private String mode;
+        private int classes;
+        // classes with at least one out of sync generator, every generator has its own drift entry
+        private int drifted;
+        private final List<Drift> drift = new ArrayList<>();
+    }
+
+    private static class Drift {
+        private final String generator;
+        private final String className;
+        private final String file;
+        private final List<String> changes;
+
+        private Drift(@NotNull String generator, @NotNull String className, @NotNull String file, @NotNull List<String> changes) {
+            this.generator = generator;
+            this.className = className;
+            this.file = file;
+            this.changes = changes;
+        }
+    }
+
+    @Override
+    public String getCommandName() {
+        return COMMAND_NAME;
+    }
+
+    @Override
+    public void premain(String[] args) {
+    }
+
+    @Override
+    public void main(String[] args) {
+        final Options options = parseOptions(args);
+        if (options == null) {
+            System.err.println("Usage: " + COMMAND_NAME
+                    + " <project path> [--write] [--report=<file>] [--generators=builder,create,serialization,comparator]");
+            System.exit(EXIT_ERROR);
+            return;
+        }
+
+        // the work needs the event dispatch thread for writes, so it must not run on it
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            int exitCode;
+            try {
+                exitCode = run(options);
+            } catch (Throwable e) {
+                LOG.error(e);
+                System.err.println("AutoValue regeneration failed: " + e.getMessage());
+                exitCode = EXIT_ERROR;
+            }
+            System.exit(exitCode);
+        });
+    }
+
+    @Nullable
+    private static Options parseOptions(@NotNull String[] args) {
+        final Options options = new Options();
+        // the first argument is the command name
+        for (int i = 1; i < args.length; i++) {
+            final String arg = args[i];
+            if ("--write".equals(arg)) {
+                options.write = true;
+            } else if (arg.startsWith("--report=")) {
+                options.reportPath = StringUtil.substringAfter(arg, "=");
+            } else if (arg.startsWith("--generators=")) {
+                for (String generator : StringUtil.split(StringUtil.notNullize(StringUtil.substringAfter(arg, "=")), ",")) {
+                    if ("builder".equals(generator)) {
+                        options.handlers.put(generator, AutoValueBuilderHandler.getInstance());
+                    } else if ("create".equals(generator)) {
+                        options.handlers.put(generator, AutoValueCreateHandler.getInstance());
+                    } else if ("serialization".equals(generator)) {
+                        options.handlers.put(generator, AutoValueSerializationHandler.getInstance());
+                    } else if ("comparator".equals(generator)) {
+                        options.handlers.put(generator, AutoValueComparatorHandler.getInstance());
+                    } else {
+                        return null;
+                    }
+                }
+            } else if (options.projectPath == null && !arg.startsWith("--")) {
+                options.projectPath = arg;
+            } else {
+                return null;
+            }
+        }
+        if (options.projectPath == null) {
+            return null;
+        }
+        if (options.handlers.isEmpty()) {
+            options.handlers.put("builder", AutoValueBuilderHandler.getInstance());
+            options.handlers.put("create", AutoValueCreateHandler.getInstance());
+            options.handlers.put("serialization", AutoValueSerializationHandler.getInstance());
+            options.handlers.put("comparator", AutoValueComparatorHandler.getInstance());
+        }
+        return options;
+    }
+
+    private static int run(@NotNull final Options options) throws IOException {
+        final String projectPath = FileUtil.toSystemIndependentName(new File(options.projectPath).getAbsolutePath());
+        final Ref<Project> projectRef = Ref.create();
+        ApplicationManager.getApplication().invokeAndWait(
+                () -> projectRef.set(ProjectUtil.openOrImport(projectPath, null, false))
+        );
+        final Project project = projectRef.get();
+        if (project == null) {
+            System.err.println("Cannot open project " + projectPath);
+            return EXIT_ERROR;
+        }
+        DumbService.getInstance(project).waitForSmartMode();
+
+        final Report report = new Report();
+        report.project = projectPath;
+        report.mode = options.write ? "write" : "check";
+        final AtomicInteger classCount = new AtomicInteger();
+        for (final Module module : ModuleManager.getInstance(project).getModules()) {
+            final List<VirtualFile> files = ReadAction.compute(
+                    () -> AutoValueUtils.findAutoValueFiles(project, GlobalSearchScope.moduleScope(module))
+            );
+            for (int start = 0; start < files.size(); start += CHUNK_SIZE) {
+                final List<VirtualFile> chunk = files.subList(start, Math.min(start + CHUNK_SIZE, files.size()));
+                processChunk(project, chunk, options, report, classCount);
+            }
+        }
+
+        if (options.write) {
+            ApplicationManager.getApplication().invokeAndWait(() -> FileDocumentManager.getInstance().saveAllDocuments());
+        }
+
+        report.classes = classCount.get();
+        final Set<String> driftedClasses = new HashSet<>();
+        for (Drift drift : report.drift) {
+            driftedClasses.add(drift.className);
+        }
+        report.drifted = driftedClasses.size();
+        int driftedMembers = 0;
+        for (Drift drift : report.drift) {
+            driftedMembers += drift.changes.size();
+        }
+        report.drift.sort(Comparator.comparing((Drift drift) -> drift.className).thenComparing(drift -> drift.generator));
+        final String json = new GsonBuilder().setPrettyPrinting().create().toJson(report);
+        if (options.reportPath != null) {
+            FileUtil.writeToFile(new File(options.reportPath), json);
+        } else {
+            System.out.println(json);
+        }
+        System.err.println(String.format(
+                "%s %d out of sync generated members in %d of %d @AutoValue classes",
+                options.write ? "Regenerated" : "Found",
+                driftedMembers,
+                report.drifted,
+                report.classes
+        ));
+
+        return options.write || report.drift.isEmpty() ? EXIT_OK : EXIT_DRIFT;
+    }
+
+    private static void processChunk(
+            @NotNull final Project project,
+            @NotNull final List<VirtualFile> files,
+            @NotNull final Options options,
+            @NotNull final Report report,
+            @NotNull final AtomicInteger classCount
+    ) {
+        // plans of the chunk are computed in parallel, one read action per file
+        final List<AutoValueMemberPlan> plans = Collections.synchronizedList(new ArrayList<>());
+        final PsiManager psiManager = PsiManager.getInstance(project);
+        JobLauncher.getInstance().invokeConcurrentlyUnderProgress(files, new EmptyProgressIndicator(), file -> {
+            ReadAction.run(() -> {
+                final PsiFile psiFile = file.isValid() ? psiManager.findFile(file) : null;
+                if (psiFile == null) {
+                    return;
+                }
+                for (PsiClass clazz : AutoValueUtils.findAutoValueClasses(psiFile)) {
+                    classCount.incrementAndGet();
+                    for (AutoValueBaseHelperHandler handler : options.handlers.values()) {
+                        // classes without a Builder or create() are not expected to have one
+                        if (!handler.hasGeneratedMembers(clazz)) {
+                            continue;
+                        }
+                        final AutoValueMemberPlan plan = handler.buildPlan(project, clazz);
+                        if (plan == null || plan.isEmpty()) {
+                            continue;
+                        }
+                        plans.add(plan);
+                        final AutoValueGenerationRun run = plan.getGenerationRun();
+                        synchronized (report) {
+                            report.drift.add(new Drift(
+                                    run.getGeneratorName(),
+                                    run.getClassName(),
+                                    file.getPath(),
+                                    plan.getChangeDescriptions()
+                            ));
+                        }
+                    }
+                }
+            });
+            return true;
+        });
+
+        if (!options.write || plans.isEmpty()) {
+            return;
+        }
+        ApplicationManager.getApplication().invokeAndWait(
+                () -> WriteCommandAction.runWriteCommandAction(project, COMMAND_TITLE, null, () -> {
+                    for (AutoValueMemberPlan plan : plans) {
+                        if (plan.isValid()) {
+                            // the process exits right after writing, a build started now would be killed
+                            plan.skipCompilation();
+                            plan.run();
+                        }
+                    }
+                })
+        );
+    }
+}
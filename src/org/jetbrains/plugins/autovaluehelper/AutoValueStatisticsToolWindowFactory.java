@@ -0,0 +1,156 @@
+package org.jetbrains.plugins.autovaluehelper;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.actionSystem.*;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.DumbAwareAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.SimpleToolWindowPanel;
+import com.intellij.openapi.wm.ToolWindow;
+import com.intellij.openapi.wm.ToolWindowFactory;
+import com.intellij.psi.PsiClass;
+import com.intellij.ui.DoubleClickListener;
+import com.intellij.ui.ScrollPaneFactory;
+import com.intellij.ui.content.Content;
+import com.intellij.ui.content.ContentFactory;
+import com.intellij.ui.table.TableView;
+import com.intellij.util.ui.ColumnInfo;
+import com.intellij.util.ui.ListTableModel;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.plugins.autovaluehelper.footprint.AutoValueFootprintRanking;
+import org.jetbrains.plugins.autovaluehelper.footprint.AutoValueFootprintRankingAction;
+
+import java.awt.event.MouseEvent;
+import java.text.DateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
+
+public class AutoValueStatisticsToolWindowFactory implements ToolWindowFactory, DumbAware {
+
+    public static final String ID = "AutoValue Helper";
+
+    // bytes per instance times 10 million, in megabytes
+    private static final double MB_PER_10M_INSTANCES = 10_000_000.0 / (1024 * 1024);
+
+    @Override
+    public void createToolWindowContent(@NotNull final Project project, @NotNull ToolWindow toolWindow) {
+        addGenerationRunsContent(project, toolWindow);
+        addFootprintContent(project, toolWindow);
+    }
+
+    private static void addGenerationRunsContent(@NotNull final Project project, @NotNull ToolWindow toolWindow) {
+        final AutoValueGenerationStatistics statistics = AutoValueGenerationStatistics.getInstance(project);
+        final ListTableModel<AutoValueGenerationRun> model = new ListTableModel<>(createColumns());
+        model.setItems(new ArrayList<>(statistics.getRuns()));
+
+        final SimpleToolWindowPanel panel = new SimpleToolWindowPanel(true, true);
+        panel.setContent(ScrollPaneFactory.createScrollPane(new TableView<>(model)));
+
+        final DefaultActionGroup actions = new DefaultActionGroup();
+        actions.add(new DumbAwareAction("Clear", "Clear recorded generation runs", AllIcons.Actions.GC) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                statistics.clear();
+                model.setItems(new ArrayList<>());
+            }
+        });
+        panel.setToolbar(ActionManager.getInstance()
+                .createActionToolbar("AutoValueHelper.Statistics", actions, true)
+                .getComponent());
+
+        final Content content = ContentFactory.SERVICE.getInstance().createContent(panel, "Generation Runs", false);
+        toolWindow.getContentManager().addContent(content);
+
+        project.getMessageBus().connect(content).subscribe(
+                AutoValueGenerationStatistics.TOPIC,
+                run -> model.addRow(run)
+        );
+    }
+
+    private static void addFootprintContent(@NotNull final Project project, @NotNull ToolWindow toolWindow) {
+        final ListTableModel<AutoValueFootprintRanking.Entry> model =
+                new ListTableModel<>(createFootprintColumns());
+        model.setItems(new ArrayList<>(AutoValueFootprintRanking.getInstance(project).getEntries()));
+
+        // double click opens the class
+        final TableView<AutoValueFootprintRanking.Entry> table = new TableView<>(model);
+        new DoubleClickListener() {
+            @Override
+            protected boolean onDoubleClick(MouseEvent event) {
+                final AutoValueFootprintRanking.Entry entry = table.getSelectedObject();
+                final PsiClass clazz = entry == null ? null : entry.getPointer().getElement();
+                if (clazz == null) {
+                    return false;
+                }
+                clazz.navigate(true);
+                return true;
+            }
+        }.installOn(table);
+
+        final SimpleToolWindowPanel panel = new SimpleToolWindowPanel(true, true);
+        panel.setContent(ScrollPaneFactory.createScrollPane(table));
+        final Content content = ContentFactory.SERVICE.getInstance()
+                .createContent(panel, AutoValueFootprintRankingAction.CONTENT_NAME, false);
+        toolWindow.getContentManager().addContent(content);
+
+        project.getMessageBus().connect(content).subscribe(
+                AutoValueFootprintRanking.TOPIC,
+                entries -> model.setItems(new ArrayList<>(entries))
+        );
+    }
+
+    @NotNull
+    private static ColumnInfo[] createColumns() {
+        final List<ColumnInfo> columns = new ArrayList<>();
+        columns.add(column(
+                "Time",
+                (AutoValueGenerationRun run) -> DateFormat.getTimeInstance().format(new Date(run.getTimestamp()))
+        ));
+        columns.add(column("Generator", AutoValueGenerationRun::getGeneratorName));
+        columns.add(column("Class", AutoValueGenerationRun::getClassName));
+        columns.add(column("Properties", AutoValueGenerationRun::getPropertyCount));
+        columns.add(column("Hierarchy", AutoValueGenerationRun::getHierarchySize));
+        columns.add(column("Changed", AutoValueGenerationRun::getChangedMembers));
+        columns.add(column("PSI Mutations", AutoValueGenerationRun::getPsiMutations));
+        for (AutoValueGenerationRun.Phase phase : AutoValueGenerationRun.Phase.values()) {
+            final String name = phase.name().charAt(0) + phase.name().substring(1).toLowerCase() + ", ms";
+            columns.add(column(name, (AutoValueGenerationRun run) -> run.getDurationMillis(phase)));
+        }
+        columns.add(column("Total, ms", AutoValueGenerationRun::getTotalMillis));
+        return columns.toArray(new ColumnInfo[0]);
+    }
+
+    @NotNull
+    private static ColumnInfo[] createFootprintColumns() {
+        final List<ColumnInfo> columns = new ArrayList<>();
+        columns.add(column("Class", AutoValueFootprintRanking.Entry::getClassName));
+        columns.add(column("Properties", AutoValueFootprintRanking.Entry::getPropertyCount));
+        columns.add(column("Bytes", AutoValueFootprintRanking.Entry::getInstanceSize));
+        columns.add(column("Padding", AutoValueFootprintRanking.Entry::getPadding));
+        columns.add(column("Boxed", AutoValueFootprintRanking.Entry::getBoxedCount));
+        columns.add(column("Optional", AutoValueFootprintRanking.Entry::getOptionalCount));
+        columns.add(column(
+                "10M instances, MB",
+                (AutoValueFootprintRanking.Entry entry) ->
+                        Math.round(entry.getInstanceSize() * MB_PER_10M_INSTANCES)
+        ));
+        return columns.toArray(new ColumnInfo[0]);
+    }
+
+    @NotNull
+    private static <T> ColumnInfo<T, Object> column(
+            @NotNull String name,
+            @NotNull final Function<T, Object> value
+    ) {
+        return new ColumnInfo<T, Object>(name) {
+            @Nullable
+            @Override
+            public Object valueOf(T item) {
+                return value.apply(item);
+            }
+        };
+    }
+}
@@ -1,11 +1,12 @@
 package org.jetbrains.plugins.autovaluehelper;
 
-import com.intellij.codeInsight.generation.PsiMethodMember;
 import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.*;
+import com.intellij.psi.search.SearchScope;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.psi.util.PsiUtil;
-import com.intellij.psi.util.TypeConversionUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -13,9 +14,16 @@ import java.util.*;
 
 public class AutoValueUtils {
 
+    public static final String AUTO_VALUE = "com.google.auto.value.AutoValue";
+    public static final String NOTIFICATION_GROUP = "AutoValue Helper";
+
     @Nullable
     public static PsiClass getStaticOrTopLevelClass(@NotNull PsiFile file, @NotNull Editor editor) {
-        final int offset = editor.getCaretModel().getOffset();
+        return getStaticOrTopLevelClass(file, editor.getCaretModel().getOffset());
+    }
+
+    @Nullable
+    public static PsiClass getStaticOrTopLevelClass(@NotNull PsiFile file, int offset) {
         final PsiElement element = file.findElementAt(offset);
         if (element == null) {
             return null;
@@ -31,66 +39,27 @@ public class AutoValueUtils {
     }
 
 
-    @Nullable
-    static List<PsiMethodMember> collectMethods(@NotNull final PsiFile file, @NotNull final Editor editor) {
-        final int offset = editor.getCaretModel().getOffset();
-        final PsiElement element = file.findElementAt(offset);
-        if (element == null) {
-            return null;
-        }
-
-        final PsiClass clazz = PsiTreeUtil.getParentOfType(element, PsiClass.class);
-
-        final List<PsiMethodMember> allMethods = new ArrayList<>();
-
-        final Queue<PsiClass> classesToExtractMethodsFrom = new LinkedList<>();
-        classesToExtractMethodsFrom.add(clazz);
-        while (!classesToExtractMethodsFrom.isEmpty()) {
-            final PsiClass currentClass = classesToExtractMethodsFrom.poll();
-            allMethods.addAll(0, collectMethodsInClass(currentClass));
-
-            final PsiClass[] interfaces = currentClass.getInterfaces();
-            for (PsiClass interfaze : interfaces) {
-                classesToExtractMethodsFrom.add(interfaze);
-            }
-
-            final PsiClass superClass = currentClass.getSuperClass();
-            if (superClass != null) {
-                classesToExtractMethodsFrom.add(superClass);
-            }
-        }
-
-        return allMethods;
+    @NotNull
+    static List<PsiClass> findAutoValueClasses(@NotNull Project project, @NotNull SearchScope scope) {
+        return AutoValueClassIndex.findAutoValueClasses(project, scope);
     }
 
     @NotNull
-    private static List<PsiMethodMember> collectMethodsInClass(@NotNull final PsiClass clazz) {
-        final List<PsiMethodMember> classMethodMembers = new ArrayList<>();
-
-        for (final PsiMethod method : clazz.getMethods()) {
-            if (!method.hasModifierProperty(PsiModifier.ABSTRACT)) {
-                continue;
-            }
-            if (method.isConstructor()) {
-                continue;
-            }
+    static List<VirtualFile> findAutoValueFiles(@NotNull Project project, @NotNull SearchScope scope) {
+        return AutoValueClassIndex.findAutoValueFiles(project, scope);
+    }
 
-            final PsiClass containingClass = method.getContainingClass();
-            if (containingClass != null) {
-                classMethodMembers.add(buildMethodMember(method, containingClass, clazz));
-            }
-        }
+    @NotNull
+    static List<PsiClass> findAutoValueClasses(@NotNull PsiFile file) {
+        return AutoValueClassIndex.findAutoValueClasses(file);
+    }
 
-        return classMethodMembers;
+    public static boolean isAutoValueClass(@NotNull PsiClass clazz) {
+        return AutoValueClassIndex.isAutoValueClass(clazz);
     }
 
-    private static PsiMethodMember buildMethodMember(
-            @NotNull final PsiMethod method,
-            @NotNull final PsiClass containingClass,
-            @NotNull final PsiClass clazz
-    ) {
-        return new PsiMethodMember(method,
-                TypeConversionUtil.getSuperClassSubstitutor(containingClass, clazz, PsiSubstitutor.EMPTY)
-        );
+    @NotNull
+    static List<AutoValueProperty> collectMethods(@NotNull final PsiClass clazz) {
+        return AutoValuePropertyModel.getInstance(clazz).getProperties();
     }
 }
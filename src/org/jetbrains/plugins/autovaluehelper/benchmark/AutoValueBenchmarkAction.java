@@ -0,0 +1,25 @@
+package org.jetbrains.plugins.autovaluehelper.benchmark;
+
+import com.intellij.codeInsight.CodeInsightActionHandler;
+import com.intellij.codeInsight.actions.BaseCodeInsightAction;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.plugins.autovaluehelper.AutoValueUtils;
+
+public class AutoValueBenchmarkAction extends BaseCodeInsightAction {
+
+    @Override
+    @NotNull
+    protected CodeInsightActionHandler getHandler() {
+        return AutoValueBenchmarkHandler.getInstance();
+    }
+
+    @Override
+    protected boolean isValidForFile(@NotNull Project project, @NotNull Editor editor, @NotNull PsiFile file) {
+        final PsiClass clazz = AutoValueUtils.getStaticOrTopLevelClass(file, editor);
+        return clazz != null && AutoValueUtils.isAutoValueClass(clazz);
+    }
+}
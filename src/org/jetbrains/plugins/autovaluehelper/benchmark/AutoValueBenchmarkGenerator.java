@@ -0,0 +1,233 @@
+package org.jetbrains.plugins.autovaluehelper.benchmark;
+
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.*;
+import com.intellij.psi.util.PsiUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.plugins.autovaluehelper.AutoValueProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// renders a JMH benchmark measuring creation, copying, equals() and hashCode() of an @AutoValue class
+class AutoValueBenchmarkGenerator {
+
+    private static final String JMH = "org.openjdk.jmh.annotations.";
+    private static final String BUILDER_CLASS_NAME = "Builder";
+
+    @NotNull
+    private final PsiClass targetClass;
+    @NotNull
+    private final List<AutoValueProperty> properties;
+    @NotNull
+    private final String type;
+
+    AutoValueBenchmarkGenerator(@NotNull PsiClass targetClass, @NotNull List<AutoValueProperty> properties) {
+        this.targetClass = targetClass;
+        this.properties = properties;
+        this.type = String.valueOf(targetClass.getQualifiedName());
+    }
+
+    @NotNull
+    static String getBenchmarkName(@NotNull PsiClass targetClass) {
+        return targetClass.getName() + "Benchmark";
+    }
+
+    @NotNull
+    static String getPackageName(@NotNull PsiClass targetClass) {
+        final PsiFile file = targetClass.getContainingFile();
+        return file instanceof PsiJavaFile ? ((PsiJavaFile) file).getPackageName() : "";
+    }
+
+    // null if the class can be neither created nor built
+    @Nullable
+    String render() {
+        final String create = renderCreate();
+        final String build = renderBuild();
+        if (create == null && build == null) {
+            return null;
+        }
+
+        final StringBuilder text = new StringBuilder();
+        final String packageName = getPackageName(targetClass);
+        if (!packageName.isEmpty()) {
+            text.append("package ").append(packageName).append(";\n\n");
+        }
+        text.append('@').append(JMH).append("BenchmarkMode(").append(JMH).append("Mode.Throughput)\n")
+                .append('@').append(JMH).append("OutputTimeUnit(java.util.concurrent.TimeUnit.MICROSECONDS)\n")
+                .append('@').append(JMH).append("State(").append(JMH).append("Scope.Benchmark)\n")
+                .append("public class ").append(getBenchmarkName(targetClass)).append(" {\n");
+
+        // every property gets a fixture field, so the values are not constant folded
+        for (AutoValueProperty property : properties) {
+            text.append("private ").append(property.getType().getCanonicalText())
+                    .append(' ').append(getFixtureName(property)).append(";\n");
+        }
+        text.append("private ").append(type).append(" value;\n")
+                .append("private ").append(type).append(" equalValue;\n\n");
+
+        // equalValue is a separate instance, so equals() compares every property instead of the references
+        final String instance = create != null ? create : build;
+        text.append('@').append(JMH).append("Setup\npublic void setUp() {\n");
+        for (AutoValueProperty property : properties) {
+            text.append(getFixtureName(property)).append(" = ").append(renderFixtureValue(property)).append(";\n");
+        }
+        text.append("value = ").append(instance).append(";\n")
+                .append("equalValue = ").append(instance).append(";\n}\n");
+
+        if (create != null) {
+            appendBenchmark(text, type, "create", create);
+        }
+        if (build != null) {
+            appendBenchmark(text, type, "build", build);
+            if (hasMethod(targetClass, "toBuilder")) {
+                appendBenchmark(text, type, "toBuilderRoundTrip", "value.toBuilder().build()");
+            }
+        }
+        appendBenchmark(text, "boolean", "equalsEqualValue", "value.equals(equalValue)");
+        appendBenchmark(text, "int", "hashCodeOfValue", "value.hashCode()");
+        return text.append('}').toString();
+    }
+
+    // create() with a parameter for every property, in property order
+    @Nullable
+    private String renderCreate() {
+        for (PsiMethod method : targetClass.findMethodsByName("create", false)) {
+            if (method.hasModifierProperty(PsiModifier.STATIC)
+                    && method.getParameterList().getParametersCount() == properties.size()) {
+                final List<String> arguments = new ArrayList<>();
+                for (AutoValueProperty property : properties) {
+                    arguments.add(getFixtureName(property));
+                }
+                return type + ".create(" + StringUtil.join(arguments, ", ") + ")";
+            }
+        }
+        return null;
+    }
+
+    // builder() with a setter call for every property
+    @Nullable
+    private String renderBuild() {
+        final PsiClass builderClass = targetClass.findInnerClassByName(BUILDER_CLASS_NAME, false);
+        if (builderClass == null || !hasMethod(targetClass, "builder")) {
+            return null;
+        }
+        final StringBuilder text = new StringBuilder(type).append(".builder()");
+        for (AutoValueProperty property : properties) {
+            if (!hasMethod(builderClass, property.getSetterName())) {
+                return null;
+            }
+            text.append('.').append(property.getSetterName()).append('(').append(getFixtureName(property)).append(')');
+        }
+        return text.append(".build()").toString();
+    }
+
+    private static void appendBenchmark(
+            @NotNull StringBuilder text,
+            @NotNull String returnType,
+            @NotNull String name,
+            @NotNull String expression
+    ) {
+        text.append("\n@").append(JMH).append("Benchmark\n")
+                .append("public ").append(returnType).append(' ').append(name).append("() {\n")
+                .append("return ").append(expression).append(";\n}\n");
+    }
+
+    // property name, unless it is a keyword or clashes with the instance fields
+    @NotNull
+    private String getFixtureName(@NotNull AutoValueProperty property) {
+        final String name = property.getPropertyName();
+        if (name.equals("value")
+                || name.equals("equalValue")
+                || !PsiNameHelper.getInstance(targetClass.getProject()).isIdentifier(name)) {
+            return name + "Property";
+        }
+        return name;
+    }
+
+    // a small non-default value, collections and optionals stay empty, other types are left for the user to fill in
+    @NotNull
+    private static String renderFixtureValue(@NotNull AutoValueProperty property) {
+        final PsiType type = property.getType();
+        if (type instanceof PsiPrimitiveType) {
+            return renderPrimitiveValue((PsiPrimitiveType) type);
+        }
+        final PsiPrimitiveType unboxedType = PsiPrimitiveType.getUnboxedType(type);
+        if (unboxedType != null) {
+            return renderPrimitiveValue(unboxedType);
+        }
+        if (type instanceof PsiArrayType) {
+            return "new " + type.getDeepComponentType().getCanonicalText() + "[0]"
+                    + StringUtil.repeat("[]", type.getArrayDimensions() - 1);
+        }
+
+        final PsiClass typeClass = PsiUtil.resolveClassInType(type);
+        final String qualifiedName = typeClass == null ? null : typeClass.getQualifiedName();
+        if (qualifiedName == null) {
+            return renderUnknownValue(property);
+        }
+        switch (qualifiedName) {
+            case CommonClassNames.JAVA_LANG_STRING:
+                return '"' + property.getPropertyName() + '"';
+            case CommonClassNames.JAVA_UTIL_OPTIONAL:
+            case "java.util.OptionalInt":
+            case "java.util.OptionalLong":
+            case "java.util.OptionalDouble":
+                return qualifiedName + ".empty()";
+            case "com.google.common.base.Optional":
+                return qualifiedName + ".absent()";
+            case CommonClassNames.JAVA_UTIL_LIST:
+            case CommonClassNames.JAVA_UTIL_COLLECTION:
+                return "java.util.Collections.emptyList()";
+            case CommonClassNames.JAVA_UTIL_SET:
+                return "java.util.Collections.emptySet()";
+            case CommonClassNames.JAVA_UTIL_MAP:
+                return "java.util.Collections.emptyMap()";
+            default:
+                break;
+        }
+        if (qualifiedName.startsWith("com.google.common.collect.Immutable")) {
+            return qualifiedName + ".of()";
+        }
+        if (typeClass.isEnum()) {
+            for (PsiField field : typeClass.getFields()) {
+                if (field instanceof PsiEnumConstant) {
+                    return qualifiedName + "." + field.getName();
+                }
+            }
+        }
+        return renderUnknownValue(property);
+    }
+
+    // null would make create() and build() throw, so a value has to be filled in before the benchmark compiles
+    @NotNull
+    private static String renderUnknownValue(@NotNull AutoValueProperty property) {
+        if (property.getNullability() == AutoValueProperty.Nullability.NULLABLE) {
+            return "null";
+        }
+        return "/* TODO: a " + property.getType().getPresentableText() + " fixture */";
+    }
+
+    @NotNull
+    private static String renderPrimitiveValue(@NotNull PsiPrimitiveType type) {
+        if (PsiType.BOOLEAN.equals(type)) {
+            return "true";
+        } else if (PsiType.CHAR.equals(type)) {
+            return "'a'";
+        } else if (PsiType.LONG.equals(type)) {
+            return "1L";
+        } else if (PsiType.FLOAT.equals(type)) {
+            return "1.0f";
+        } else if (PsiType.DOUBLE.equals(type)) {
+            return "1.0";
+        } else if (PsiType.BYTE.equals(type) || PsiType.SHORT.equals(type)) {
+            return "(" + type.getCanonicalText() + ") 1";
+        }
+        return "1";
+    }
+
+    private static boolean hasMethod(@NotNull PsiClass clazz, @NotNull String name) {
+        return clazz.findMethodsByName(name, false).length > 0;
+    }
+}
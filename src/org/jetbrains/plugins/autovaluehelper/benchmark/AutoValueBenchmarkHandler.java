@@ -0,0 +1,106 @@
+package org.jetbrains.plugins.autovaluehelper.benchmark;
+
+import com.intellij.codeInsight.CodeInsightActionHandler;
+import com.intellij.codeInsight.hint.HintManager;
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.ide.util.PackageUtil;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ModuleUtilCore;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ModuleRootManager;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.*;
+import com.intellij.psi.codeStyle.CodeStyleManager;
+import com.intellij.psi.codeStyle.JavaCodeStyleManager;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.jps.model.java.JavaSourceRootType;
+import org.jetbrains.plugins.autovaluehelper.AutoValueProperty;
+import org.jetbrains.plugins.autovaluehelper.AutoValuePropertyModel;
+import org.jetbrains.plugins.autovaluehelper.AutoValueUtils;
+
+import java.util.List;
+
+// writes <Class>Benchmark into the same package under the first test source root of the module
+@Service
+public final class AutoValueBenchmarkHandler implements CodeInsightActionHandler {
+
+    private static final String COMMAND_NAME = "Generate AutoValue JMH Benchmark";
+
+    @NotNull
+    public static AutoValueBenchmarkHandler getInstance() {
+        return ServiceManager.getService(AutoValueBenchmarkHandler.class);
+    }
+
+    private AutoValueBenchmarkHandler() {
+    }
+
+    @Override
+    public void invoke(@NotNull Project project, @NotNull Editor editor, @NotNull PsiFile file) {
+        final PsiClass targetClass = AutoValueUtils.getStaticOrTopLevelClass(file, editor);
+        if (targetClass == null) {
+            return;
+        }
+        if (targetClass.hasTypeParameters()) {
+            HintManager.getInstance().showErrorHint(editor, "Benchmarks of generic classes are not supported");
+            return;
+        }
+        final List<AutoValueProperty> properties = AutoValuePropertyModel.getInstance(targetClass).getProperties();
+        final String text = new AutoValueBenchmarkGenerator(targetClass, properties).render();
+        if (text == null) {
+            HintManager.getInstance().showErrorHint(editor, "Generate create() or a Builder first");
+            return;
+        }
+
+        final Module module = ModuleUtilCore.findModuleForPsiElement(targetClass);
+        final List<VirtualFile> testRoots = module == null
+                ? null
+                : ModuleRootManager.getInstance(module).getSourceRoots(JavaSourceRootType.TEST_SOURCE);
+        if (testRoots == null || testRoots.isEmpty()) {
+            HintManager.getInstance().showErrorHint(editor, "Module has no test source root");
+            return;
+        }
+        final PsiDirectory testRoot = PsiManager.getInstance(project).findDirectory(testRoots.get(0));
+        if (testRoot == null) {
+            return;
+        }
+        final PsiDirectory directory = PackageUtil.findOrCreateDirectoryForPackage(
+                module,
+                AutoValueBenchmarkGenerator.getPackageName(targetClass),
+                testRoot,
+                false
+        );
+        if (directory == null) {
+            return;
+        }
+
+        // an existing benchmark may have been tuned by hand, it is opened instead of overwritten
+        final String fileName =
+                AutoValueBenchmarkGenerator.getBenchmarkName(targetClass) + "." + JavaFileType.DEFAULT_EXTENSION;
+        final PsiFile existingFile = directory.findFile(fileName);
+        if (existingFile != null) {
+            existingFile.navigate(true);
+            return;
+        }
+
+        final PsiFile benchmarkFile = WriteCommandAction.writeCommandAction(project)
+                .withName(COMMAND_NAME)
+                .compute(() -> {
+                    final PsiFile newFile = PsiFileFactory.getInstance(project)
+                            .createFileFromText(fileName, JavaFileType.INSTANCE, text);
+                    final PsiFile addedFile = (PsiFile) directory.add(newFile);
+                    JavaCodeStyleManager.getInstance(project).shortenClassReferences(addedFile);
+                    CodeStyleManager.getInstance(project).reformat(addedFile);
+                    return addedFile;
+                });
+        benchmarkFile.navigate(true);
+    }
+
+    @Override
+    public boolean startInWriteAction() {
+        return false;
+    }
+}
@@ -5,6 +5,6 @@ import org.jetbrains.plugins.autovaluehelper.AutoValueBaseHelperAction;
 public class AutoValueBuilderAction extends AutoValueBaseHelperAction {
 
     public AutoValueBuilderAction() {
-        super(new AutoValueBuilderHandler());
+        super(AutoValueBuilderHandler::getInstance);
     }
 }
@@ -0,0 +1,10 @@
+package org.jetbrains.plugins.autovaluehelper.builder;
+
+import org.jetbrains.plugins.autovaluehelper.AutoValueBaseBatchAction;
+
+public class AutoValueBuilderBatchAction extends AutoValueBaseBatchAction {
+
+    public AutoValueBuilderBatchAction() {
+        super("Regenerate AutoValue Builders", AutoValueBuilderHandler::getInstance);
+    }
+}
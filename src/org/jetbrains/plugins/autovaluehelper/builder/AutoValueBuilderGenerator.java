@@ -1,161 +1,287 @@
 package org.jetbrains.plugins.autovaluehelper.builder;
 
-import com.intellij.codeInsight.generation.PsiMethodMember;
-import com.intellij.openapi.application.ApplicationManager;
-import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.psi.*;
-import com.intellij.psi.codeStyle.CodeStyleManager;
-import com.intellij.psi.codeStyle.JavaCodeStyleManager;
-import com.intellij.psi.util.PsiUtil;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.plugins.autovaluehelper.AutoValueBaseHelperGenerator;
-import org.jetbrains.plugins.autovaluehelper.AutoValueUtils;
+import org.jetbrains.plugins.autovaluehelper.AutoValueHelperSettings;
+import org.jetbrains.plugins.autovaluehelper.AutoValueMemberPlan;
+import org.jetbrains.plugins.autovaluehelper.AutoValueProperty;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 class AutoValueBuilderGenerator extends AutoValueBaseHelperGenerator {
 
     private static final String BUILDER_CLASS_NAME = "Builder";
     private static final String BUILD_METHOD_NAME = "build";
+    private static final String AUTO_BUILD_METHOD_NAME = "autoBuild";
+    private static final String TO_BUILDER_METHOD_NAME = "toBuilder";
+    private static final String WITHER_PREFIX = "with";
 
-    private final PsiFile file;
-    private final Editor editor;
+    @Nullable
+    private final Set<String> witherProperties;
 
-    static void generate(@NotNull final Project project,
-                         @NotNull final Editor editor,
-                         @NotNull final PsiFile file,
-                         @NotNull final List<PsiMethodMember> selectedMethods
+    @NotNull
+    static AutoValueMemberPlan createPlan(@NotNull final Project project,
+                                          @NotNull final PsiClass targetClass,
+                                          @NotNull final List<AutoValueProperty> properties
     ) {
-        final Runnable builderGenerator = new AutoValueBuilderGenerator(project, file, editor, selectedMethods);
-        ApplicationManager.getApplication().runWriteAction(builderGenerator);
+        return createPlan(project, targetClass, properties, null);
+    }
+
+    @NotNull
+    static AutoValueMemberPlan createPlan(@NotNull final Project project,
+                                          @NotNull final PsiClass targetClass,
+                                          @NotNull final List<AutoValueProperty> properties,
+                                          @Nullable final Set<String> witherProperties
+    ) {
+        return new AutoValueBuilderGenerator(project, targetClass, properties, witherProperties).buildPlan();
     }
 
     private AutoValueBuilderGenerator(
             @NotNull final Project project,
-            @NotNull final PsiFile file,
-            @NotNull final Editor editor,
-            @NotNull final List<PsiMethodMember> selectedMethods
+            @NotNull final PsiClass targetClass,
+            @NotNull final List<AutoValueProperty> properties,
+            @Nullable final Set<String> witherProperties
     ) {
-        super(selectedMethods, project);
-        this.file = file;
-        this.editor = editor;
+        super(properties, project, targetClass);
+        this.witherProperties = witherProperties;
     }
 
-    @Override
-    public void run() {
-        final PsiClass targetClass = AutoValueUtils.getStaticOrTopLevelClass(file, editor);
-        if (targetClass == null) {
-            return;
-        }
-        final PsiClass builderClass = findOrCreateBuilderClass(targetClass);
-        final PsiType builderType = psiElementFactory.createTypeFromText(BUILDER_CLASS_NAME, null);
-
-        // generate builder() method
-        final PsiMethod newBuilderMethod = generateBuilderMethod(targetClass, builderType);
-        addMethod(targetClass, null, newBuilderMethod);
-
-        // builder methods
-        for (final PsiMethodMember member : selectedMethods) {
-            final PsiMethod setterMethod = generateBuilderSetter(builderType, member);
-            addMethod(builderClass, null, setterMethod);
+    static boolean hasWither(@NotNull PsiClass targetClass, @NotNull AutoValueProperty property) {
+        for (PsiMethod method : targetClass.findMethodsByName(getWitherName(property), false)) {
+            if (isWither(targetClass, method)) {
+                return true;
+            }
         }
+        return false;
+    }
 
-        // builder.build() method
-        final PsiMethod buildMethod = generateBuildMethod(targetClass);
-        addMethod(builderClass, null, buildMethod);
+    @NotNull
+    @Override
+    protected String getGeneratorName() {
+        return "Builder";
+    }
 
-        deleteUnusedMethods(builderClass);
+    @Override
+    protected void fillPlan(@NotNull AutoValueMemberPlan plan) {
+        final PsiClass builderClass = targetClass.findInnerClassByName(BUILDER_CLASS_NAME, false);
+        final String builderType = psiElementFactory.createTypeFromText(BUILDER_CLASS_NAME, targetClass).getCanonicalText();
 
-        JavaCodeStyleManager.getInstance(project).shortenClassReferences(file);
-        CodeStyleManager.getInstance(project).reformat(builderClass);
-    }
+        // generate builder() method, optional toBuilder() and withX() methods
+        final List<PsiMethod> newTargetMethods = new ArrayList<>();
+        newTargetMethods.add(psiElementFactory.createMethodFromText(renderBuilderMethod(builderType), targetClass));
+        if (AutoValueHelperSettings.getInstance().generateToBuilder) {
+            newTargetMethods.add(psiElementFactory.createMethodFromText(renderToBuilderMethod(builderType), targetClass));
+        }
+        final Set<String> witherNames = new HashSet<>();
+        for (AutoValueProperty property : properties) {
+            if (witherProperties != null ? witherProperties.contains(property.getName()) : hasWither(targetClass, property)) {
+                witherNames.add(getWitherName(property));
+                final PsiMethod wither = psiElementFactory.createMethodFromText(renderWither(property), targetClass);
+                // a hand-written withX() of the same signature is kept as it is
+                final PsiMethod existing = targetClass.findMethodBySignature(wither, false);
+                if (existing == null || isWither(targetClass, existing)) {
+                    newTargetMethods.add(wither);
+                }
+            }
+        }
+        plan.syncMethods(targetClass, newTargetMethods, null);
 
-    private PsiMethod generateBuilderMethod(@NotNull PsiClass targetClass, @NotNull PsiType builderType) {
-        final PsiMethod newBuilderMethod = psiElementFactory.createMethod("builder", builderType);
-        PsiUtil.setModifierProperty(newBuilderMethod, PsiModifier.STATIC, true);
-        newBuilderMethod.getModifierList().addAnnotation(NONNULL);
-        setSameVisibility(targetClass, newBuilderMethod);
+        // withers of removed or deselected properties are deleted
+        for (PsiMethod method : targetClass.getMethods()) {
+            if (isWither(targetClass, method) && !witherNames.contains(method.getName())) {
+                plan.deleteMethod(method);
+            }
+        }
 
-        final PsiCodeBlock builderMethodBody = newBuilderMethod.getBody();
-        if (builderMethodBody != null) {
-            final String className = getAutoValueClassName(targetClass);
+        // builder interface with its methods is rendered at once
+        final PsiClass newBuilderClass = psiElementFactory.createClassFromText(
+                renderBuilderClass(builderType),
+                targetClass
+        ).getInnerClasses()[0];
 
-            final PsiStatement returnStatement = psiElementFactory.createStatementFromText(
-                    String.format("return new %s.%s();", className, BUILDER_CLASS_NAME),
-                    newBuilderMethod
+        if (builderClass == null) {
+            plan.addClass(targetClass, newBuilderClass);
+        } else {
+            // setters of removed properties are deleted, hand-written methods are kept
+            final Set<String> builderMethodNames = new HashSet<>();
+            for (PsiMethod method : newBuilderClass.getMethods()) {
+                builderMethodNames.add(method.getName());
+            }
+            plan.syncMethods(
+                    builderClass,
+                    Arrays.asList(newBuilderClass.getMethods()),
+                    method -> isStaleBuilderMethod(builderClass, method, builderMethodNames)
             );
-            builderMethodBody.add(returnStatement);
         }
-        return newBuilderMethod;
+        syncInterner(plan);
     }
 
     @NotNull
-    private PsiMethod generateBuilderSetter(
-            @NotNull final PsiType builderType,
-            @NotNull final PsiMethodMember getterMember
-    ) {
-        final PsiMethod getterMethod = getterMember.getElement();
-        final PsiType parameterType = getterMethod.getReturnType();
-        final String methodName = getterMethod.getName();
-        assert parameterType != null;
+    private String renderBuilderMethod(@NotNull String builderType) {
+        return String.format(
+                "@%s %sstatic %s builder() {\nreturn new %s.%s();\n}",
+                NONNULL,
+                renderSameVisibility(targetClass),
+                builderType,
+                getAutoValueClassName(targetClass),
+                BUILDER_CLASS_NAME
+        );
+    }
 
-        final PsiMethod setterMethod = psiElementFactory.createMethod(methodName, builderType);
-        setterMethod.getModifierList().addAnnotation(NONNULL);
+    @NotNull
+    private String renderToBuilderMethod(@NotNull String builderType) {
+        return String.format(
+                "@%s %sabstract %s %s();",
+                NONNULL,
+                renderSameVisibility(targetClass),
+                builderType,
+                TO_BUILDER_METHOD_NAME
+        );
+    }
 
-        final PsiParameter setterParameter = createSetterParameter(getterMethod, parameterType, methodName);
-        setterMethod.getParameterList().add(setterParameter);
+    @NotNull
+    private String renderWither(@NotNull AutoValueProperty property) {
+        return String.format(
+                "@%s %sabstract %s %s(%s);",
+                NONNULL,
+                renderSameVisibility(targetClass),
+                psiElementFactory.createType(targetClass).getCanonicalText(),
+                getWitherName(property),
+                renderSetterParameter(property, property.getType(), property.getPropertyName())
+        );
+    }
 
-        final PsiCodeBlock body = setterMethod.getBody();
-        assert body != null;
-        body.delete();
+    // a method of the generated shape that is no longer generated: the setter of a removed property,
+    // autoBuild() once interning is off or the xxxBuilder() of a removed collection property;
+    // default, static and multi-parameter methods are never touched
+    private static boolean isStaleBuilderMethod(
+            @NotNull PsiClass builderClass,
+            @NotNull PsiMethod method,
+            @NotNull Set<String> builderMethodNames
+    ) {
+        if (builderMethodNames.contains(method.getName())
+                || !method.hasModifierProperty(PsiModifier.ABSTRACT)
+                || method.hasModifierProperty(PsiModifier.STATIC)
+                || method.getBody() != null) {
+            return false;
+        }
+        final int parametersCount = method.getParameterList().getParametersCount();
+        if (parametersCount == 0) {
+            return AUTO_BUILD_METHOD_NAME.equals(method.getName()) || method.getName().endsWith(BUILDER_CLASS_NAME);
+        }
+        final PsiType returnType = method.getReturnType();
+        return parametersCount == 1
+                && returnType instanceof PsiClassType
+                && builderClass.getManager().areElementsEquivalent(((PsiClassType) returnType).resolve(), builderClass);
+    }
 
-        return setterMethod;
+    // abstract copy method returning the value class, e.g. Foo withBar(Bar bar)
+    private static boolean isWither(@NotNull PsiClass targetClass, @NotNull PsiMethod method) {
+        final String name = method.getName();
+        if (!name.startsWith(WITHER_PREFIX)
+                || name.length() == WITHER_PREFIX.length()
+                || !Character.isUpperCase(name.charAt(WITHER_PREFIX.length()))
+                || !method.hasModifierProperty(PsiModifier.ABSTRACT)
+                || method.getParameterList().getParametersCount() != 1) {
+            return false;
+        }
+        final PsiType returnType = method.getReturnType();
+        return returnType instanceof PsiClassType
+                && targetClass.getManager().areElementsEquivalent(((PsiClassType) returnType).resolve(), targetClass);
     }
 
     @NotNull
-    private PsiMethod generateBuildMethod(@NotNull final PsiClass targetClass) {
-        final PsiType targetClassType = psiElementFactory.createType(targetClass);
-        final PsiMethod buildMethod = psiElementFactory.createMethod(BUILD_METHOD_NAME, targetClassType);
+    private static String getWitherName(@NotNull AutoValueProperty property) {
+        return WITHER_PREFIX + StringUtil.capitalize(property.getPropertyName());
+    }
 
-        buildMethod.getModifierList().addAnnotation(NONNULL);
+    @NotNull
+    private String renderBuilderClass(@NotNull String builderType) {
+        final StringBuilder builderClass = new StringBuilder()
+                .append('@').append(AUTO_VALUE_BUILDER).append(' ')
+                .append(renderSameVisibility(targetClass))
+                .append("interface ").append(BUILDER_CLASS_NAME).append(" {\n");
 
-        final PsiCodeBlock body = buildMethod.getBody();
-        assert body != null;
-        body.delete();
+        // builder methods, Guava immutable collections may get an xxxBuilder() accessor
+        final AutoValueHelperSettings.CollectionBuilders collectionBuilders =
+                AutoValueHelperSettings.getInstance().collectionBuilders;
+        for (final AutoValueProperty property : properties) {
+            final String collectionBuilderType = collectionBuilders == AutoValueHelperSettings.CollectionBuilders.NONE
+                    ? null
+                    : property.getCollectionBuilderType();
+            if (collectionBuilderType == null || collectionBuilders == AutoValueHelperSettings.CollectionBuilders.ALONGSIDE) {
+                builderClass.append(renderBuilderSetter(builderType, property)).append('\n');
+                // an overload taking the plain value spares callers an Optional allocation
+                if (property.getUnwrappedType() != null) {
+                    builderClass.append(renderUnwrappedSetter(builderType, property, property.getUnwrappedType())).append('\n');
+                }
+            }
+            if (collectionBuilderType != null) {
+                builderClass.append(renderCollectionBuilder(collectionBuilderType, property)).append('\n');
+            }
+        }
 
-        return buildMethod;
+        // builder.build() method
+        builderClass.append(renderBuildMethod()).append('\n');
+
+        return builderClass.append('}').toString();
     }
 
     @NotNull
-    private PsiClass findOrCreateBuilderClass(final PsiClass targetClass) {
-        final PsiClass builderClass = targetClass.findInnerClassByName(BUILDER_CLASS_NAME, false);
-        if (builderClass == null) {
-            return createBuilderClass(targetClass);
-        }
+    private String renderBuilderSetter(
+            @NotNull final String builderType,
+            @NotNull final AutoValueProperty property
+    ) {
+        final String methodName = property.getSetterName();
+        return String.format(
+                "@%s public %s %s(%s);",
+                NONNULL,
+                builderType,
+                methodName,
+                renderSetterParameter(property, property.getType(), property.getName())
+        );
+    }
 
-        return builderClass;
+    @NotNull
+    private String renderUnwrappedSetter(
+            @NotNull final String builderType,
+            @NotNull final AutoValueProperty property,
+            @NotNull final PsiType unwrappedType
+    ) {
+        final String methodName = property.getSetterName();
+        return String.format(
+                "@%s public %s %s(%s);",
+                NONNULL,
+                builderType,
+                methodName,
+                renderParameter(AutoValueProperty.Nullability.NONNULL, unwrappedType, property.getName())
+        );
     }
 
     @NotNull
-    private PsiClass createBuilderClass(final PsiClass targetClass) {
-        final PsiClass builderClass = (PsiClass) targetClass.add(psiElementFactory.createInterface(BUILDER_CLASS_NAME));
-        final PsiModifierList modifierList = builderClass.getModifierList();
-        assert modifierList != null;
-        modifierList.addAnnotation(AUTO_VALUE_BUILDER);
-        setSameVisibility(targetClass, builderClass);
-        return builderClass;
-    }
-
-    private void deleteUnusedMethods(@NotNull PsiClass builderClass) {
-        final Set<String> methodNamesToStore = selectedMethods.stream()
-                .map(methodMember -> ((PsiMethod) methodMember.getPsiElement()).getName())
-                .collect(Collectors.toSet());
-        for (PsiMethod method : builderClass.getMethods()) {
-            if (!methodNamesToStore.contains(method.getName()) && !BUILD_METHOD_NAME.equals(method.getName())) {
-                method.delete();
-            }
+    private String renderCollectionBuilder(
+            @NotNull final String collectionBuilderType,
+            @NotNull final AutoValueProperty property
+    ) {
+        return String.format("@%s public %s %s();", NONNULL, collectionBuilderType, property.getCollectionBuilderName());
+    }
+
+    @NotNull
+    private String renderBuildMethod() {
+        final String targetClassType = psiElementFactory.createType(targetClass).getCanonicalText();
+        if (!isInterning()) {
+            return String.format("@%s public %s %s();", NONNULL, targetClassType, BUILD_METHOD_NAME);
         }
+        // AutoValue implements autoBuild(), build() wraps it to intern the result
+        return String.format(
+                "@%s public %s %s();\n@%s default %s %s() {\nreturn %s.intern(%s());\n}",
+                NONNULL, targetClassType, AUTO_BUILD_METHOD_NAME,
+                NONNULL, targetClassType, BUILD_METHOD_NAME,
+                INTERNER_FIELD_NAME, AUTO_BUILD_METHOD_NAME
+        );
     }
 }
@@ -1,23 +1,114 @@
 package org.jetbrains.plugins.autovaluehelper.builder;
 
 import com.intellij.codeInsight.generation.PsiMethodMember;
+import com.intellij.ide.util.MemberChooser;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.components.ServiceManager;
 import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiFile;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.plugins.autovaluehelper.AutoValueBaseHelperHandler;
+import org.jetbrains.plugins.autovaluehelper.AutoValueHelperSettings;
+import org.jetbrains.plugins.autovaluehelper.AutoValueMemberPlan;
+import org.jetbrains.plugins.autovaluehelper.AutoValueProperty;
+import org.jetbrains.plugins.autovaluehelper.AutoValuePropertyModel;
 
-import java.util.List;
+import java.util.*;
 
-class AutoValueBuilderHandler extends AutoValueBaseHelperHandler {
+@Service
+public final class AutoValueBuilderHandler extends AutoValueBaseHelperHandler {
 
+    private static final String BUILDER_CLASS_NAME = "Builder";
+
+    private static class WitherChoices {
+        @NotNull
+        private final PsiMethodMember[] members;
+        @NotNull
+        private final List<PsiMethodMember> existingWithers;
+
+        private WitherChoices(@NotNull PsiMethodMember[] members, @NotNull List<PsiMethodMember> existingWithers) {
+            this.members = members;
+            this.existingWithers = existingWithers;
+        }
+    }
+
+    // names of properties that get a withX() method, null keeps the withers the class already has
+    @Nullable
+    private final Set<String> witherProperties;
+
+    @NotNull
+    public static AutoValueBuilderHandler getInstance() {
+        return ServiceManager.getService(AutoValueBuilderHandler.class);
+    }
+
+    private AutoValueBuilderHandler() {
+        this(null);
+    }
+
+    private AutoValueBuilderHandler(@Nullable Set<String> witherProperties) {
+        this.witherProperties = witherProperties;
+    }
+
+    @Override
+    public void invoke(@NotNull Project project, @NotNull Editor editor, @NotNull PsiFile file) {
+        if (witherProperties != null || !AutoValueHelperSettings.getInstance().chooseWithers) {
+            super.invoke(project, editor, file);
+            return;
+        }
+
+        scheduleChooser(project, editor, file, AutoValueBuilderHandler::collectWitherChoices, choices -> {
+            final MemberChooser<PsiMethodMember> chooser = new MemberChooser<>(choices.members, true, true, project);
+            chooser.setTitle("Select Properties to Generate withX() Methods (requires auto-value-with)");
+            chooser.setCopyJavadocVisible(false);
+            chooser.selectElements(choices.existingWithers.toArray(new PsiMethodMember[0]));
+            if (!chooser.showAndGet()) {
+                return;
+            }
+
+            final Set<String> selectedProperties = new HashSet<>();
+            final List<PsiMethodMember> selectedMembers = chooser.getSelectedElements();
+            if (selectedMembers != null) {
+                for (PsiMethodMember member : selectedMembers) {
+                    selectedProperties.add(member.getElement().getName());
+                }
+            }
+            new AutoValueBuilderHandler(selectedProperties).invoke(project, editor, file);
+        });
+    }
+
+    @Nullable
+    private static WitherChoices collectWitherChoices(@NotNull PsiClass targetClass) {
+        final List<AutoValueProperty> properties = AutoValuePropertyModel.getInstance(targetClass).getProperties();
+        if (properties.isEmpty()) {
+            return null;
+        }
+
+        final PsiMethodMember[] members = new PsiMethodMember[properties.size()];
+        final List<PsiMethodMember> existingWithers = new ArrayList<>();
+        for (int i = 0; i < properties.size(); i++) {
+            members[i] = properties.get(i).getMember();
+            if (AutoValueBuilderGenerator.hasWither(targetClass, properties.get(i))) {
+                existingWithers.add(members[i]);
+            }
+        }
+        return new WitherChoices(members, existingWithers);
+    }
+
+    @Override
+    protected boolean hasGeneratedMembers(@NotNull PsiClass targetClass) {
+        return targetClass.findInnerClassByName(BUILDER_CLASS_NAME, false) != null;
+    }
+
+    @NotNull
     @Override
-    protected void generate(
+    protected AutoValueMemberPlan createPlan(
             @NotNull Project project,
-            @NotNull Editor editor,
-            @NotNull PsiFile file,
-            @NotNull List<PsiMethodMember> existingFields
+            @NotNull PsiClass targetClass,
+            @NotNull List<AutoValueProperty> properties
     ) {
-        AutoValueBuilderGenerator.generate(project, editor, file, existingFields);
+        return AutoValueBuilderGenerator.createPlan(project, targetClass, properties, witherProperties);
     }
 }
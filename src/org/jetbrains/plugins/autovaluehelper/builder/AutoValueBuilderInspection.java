@@ -0,0 +1,97 @@
+package org.jetbrains.plugins.autovaluehelper.builder;
+
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.plugins.autovaluehelper.AutoValueBaseHelperHandler;
+import org.jetbrains.plugins.autovaluehelper.AutoValueBaseInspection;
+import org.jetbrains.plugins.autovaluehelper.AutoValueProperty;
+import org.jetbrains.plugins.autovaluehelper.AutoValuePropertyModel;
+
+import java.util.*;
+
+public class AutoValueBuilderInspection extends AutoValueBaseInspection {
+
+    private static final String BUILDER_CLASS_NAME = "Builder";
+
+    @Nullable
+    @Override
+    protected String findProblem(@NotNull PsiClass targetClass, @NotNull AutoValuePropertyModel model) {
+        final PsiClass builderClass = targetClass.findInnerClassByName(BUILDER_CLASS_NAME, false);
+        if (builderClass == null) {
+            return null;
+        }
+
+        final Map<String, Set<String>> setters = getSetterFingerprint(builderClass);
+        final List<String> missingSetters = new ArrayList<>();
+        final List<String> mistypedSetters = new ArrayList<>();
+        final Map<String, String> fingerprint = model.getFingerprint();
+        final Set<String> setterNames = new HashSet<>();
+        for (AutoValueProperty property : model.getProperties()) {
+            setterNames.add(property.getSetterName());
+            final Set<String> setterTypes = setters.get(property.getSetterName());
+            if (setterTypes == null) {
+                // a collection property may be filled through its xxxBuilder() only
+                if (property.getCollectionBuilderType() == null
+                        || builderClass.findMethodsByName(property.getCollectionBuilderName(), false).length == 0) {
+                    missingSetters.add(property.getSetterName());
+                }
+            } else if (!setterTypes.contains(fingerprint.get(property.getName()))) {
+                mistypedSetters.add(property.getSetterName());
+            }
+        }
+        final List<String> extraSetters = new ArrayList<>();
+        for (String setterName : setters.keySet()) {
+            if (!setterNames.contains(setterName)) {
+                extraSetters.add(setterName);
+            }
+        }
+        if (missingSetters.isEmpty() && mistypedSetters.isEmpty() && extraSetters.isEmpty()) {
+            return null;
+        }
+
+        final List<String> details = new ArrayList<>();
+        if (!missingSetters.isEmpty()) {
+            details.add("missing " + StringUtil.join(missingSetters, ", "));
+        }
+        if (!mistypedSetters.isEmpty()) {
+            details.add("wrong type of " + StringUtil.join(mistypedSetters, ", "));
+        }
+        if (!extraSetters.isEmpty()) {
+            details.add("no property for " + StringUtil.join(extraSetters, ", "));
+        }
+        return "Builder is out of sync: " + StringUtil.join(details, "; ");
+    }
+
+    @NotNull
+    @Override
+    protected String getFixName() {
+        return "Regenerate Builder";
+    }
+
+    @NotNull
+    @Override
+    protected AutoValueBaseHelperHandler getHandler() {
+        return AutoValueBuilderHandler.getInstance();
+    }
+
+    // setter names mapped to their parameter types, overloads share a name
+    @NotNull
+    private static Map<String, Set<String>> getSetterFingerprint(@NotNull final PsiClass builderClass) {
+        return CachedValuesManager.getCachedValue(builderClass, () -> {
+            final Map<String, Set<String>> setters = new HashMap<>();
+            for (PsiMethod method : builderClass.getMethods()) {
+                final List<String> parameterTypes = getParameterTypes(method);
+                if (parameterTypes.size() == 1) {
+                    setters.computeIfAbsent(method.getName(), name -> new HashSet<>()).add(parameterTypes.get(0));
+                }
+            }
+            return CachedValueProvider.Result.create(setters, PsiModificationTracker.JAVA_STRUCTURE_MODIFICATION_COUNT);
+        });
+    }
+}
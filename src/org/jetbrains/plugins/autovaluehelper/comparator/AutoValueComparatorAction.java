@@ -0,0 +1,10 @@
+package org.jetbrains.plugins.autovaluehelper.comparator;
+
+import org.jetbrains.plugins.autovaluehelper.AutoValueBaseHelperAction;
+
+public class AutoValueComparatorAction extends AutoValueBaseHelperAction {
+
+    public AutoValueComparatorAction() {
+        super(AutoValueComparatorHandler::getInstance);
+    }
+}
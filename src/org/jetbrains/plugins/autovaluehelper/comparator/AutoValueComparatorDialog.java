@@ -0,0 +1,81 @@
+package org.jetbrains.plugins.autovaluehelper.comparator;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.ComboBox;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.ui.CheckBoxList;
+import com.intellij.ui.ToolbarDecorator;
+import com.intellij.util.ui.FormBuilder;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.plugins.autovaluehelper.AutoValueProperty;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.List;
+
+class AutoValueComparatorDialog extends DialogWrapper {
+
+    private final CheckBoxList<String> keyList = new CheckBoxList<>();
+    private final ComboBox<AutoValueComparatorGenerator.Style> style;
+
+    AutoValueComparatorDialog(
+            @NotNull Project project,
+            @NotNull List<AutoValueProperty> comparableProperties,
+            @NotNull List<AutoValueProperty> keys,
+            @NotNull AutoValueComparatorGenerator.Style currentStyle,
+            boolean comparatorAvailable
+    ) {
+        super(project);
+        // current keys come first in their order, the other properties follow unchecked
+        for (AutoValueProperty key : keys) {
+            keyList.addItem(key.getName(), renderItem(key), true);
+        }
+        for (AutoValueProperty property : comparableProperties) {
+            if (!keys.contains(property)) {
+                keyList.addItem(property.getName(), renderItem(property), false);
+            }
+        }
+        style = comparatorAvailable
+                ? new ComboBox<>(AutoValueComparatorGenerator.Style.values())
+                : new ComboBox<>(new AutoValueComparatorGenerator.Style[]{AutoValueComparatorGenerator.Style.COMPARE_TO});
+        style.setSelectedItem(comparatorAvailable ? currentStyle : AutoValueComparatorGenerator.Style.COMPARE_TO);
+        setTitle("Select Properties to Compare");
+        init();
+    }
+
+    // getter names of the checked properties, in the order they are listed
+    @NotNull
+    List<String> getSelectedKeys() {
+        final List<String> keys = new ArrayList<>();
+        for (int i = 0; i < keyList.getModel().getSize(); i++) {
+            if (keyList.isItemSelected(i)) {
+                keys.add(keyList.getItemAt(i));
+            }
+        }
+        return keys;
+    }
+
+    @NotNull
+    AutoValueComparatorGenerator.Style getSelectedStyle() {
+        return style.getItem();
+    }
+
+    @Nullable
+    @Override
+    protected JComponent createCenterPanel() {
+        final JPanel keyPanel = ToolbarDecorator.createDecorator(keyList)
+                .disableAddAction()
+                .disableRemoveAction()
+                .createPanel();
+        return FormBuilder.createFormBuilder()
+                .addLabeledComponent("Compare by, in order:", keyPanel, true)
+                .addLabeledComponent("Generate:", style)
+                .getPanel();
+    }
+
+    @NotNull
+    private static String renderItem(@NotNull AutoValueProperty property) {
+        return property.getName() + "(): " + property.getType().getPresentableText();
+    }
+}
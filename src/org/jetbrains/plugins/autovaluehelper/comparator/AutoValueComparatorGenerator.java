@@ -0,0 +1,332 @@
+package org.jetbrains.plugins.autovaluehelper.comparator;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.*;
+import com.intellij.psi.util.InheritanceUtil;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.util.PsiUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.plugins.autovaluehelper.AutoValueBaseHelperGenerator;
+import org.jetbrains.plugins.autovaluehelper.AutoValueMemberPlan;
+import org.jetbrains.plugins.autovaluehelper.AutoValueProperty;
+
+import java.util.*;
+
+class AutoValueComparatorGenerator extends AutoValueBaseHelperGenerator {
+
+    enum Style {
+        COMPARE_TO("compareTo() implementing Comparable"),
+        COMPARATOR("Static COMPARATOR constant");
+
+        @NotNull
+        private final String presentableName;
+
+        Style(@NotNull String presentableName) {
+            this.presentableName = presentableName;
+        }
+
+        @Override
+        public String toString() {
+            return presentableName;
+        }
+    }
+
+    private static final String COMPARE_TO_METHOD_NAME = "compareTo";
+    private static final String COMPARATOR_FIELD_NAME = "COMPARATOR";
+    private static final List<String> WHITESPACES = Arrays.asList(" ", "\t", "\n", "\r");
+    private static final List<String> EMPTY_STRINGS = Arrays.asList("", "", "", "");
+
+    // getter names in comparison order, null keeps the keys the class already compares
+    @Nullable
+    private final List<String> keys;
+    // null keeps the style the class already uses
+    @Nullable
+    private final Style style;
+
+    @NotNull
+    static AutoValueMemberPlan createPlan(@NotNull final Project project,
+                                          @NotNull final PsiClass targetClass,
+                                          @NotNull final List<AutoValueProperty> properties,
+                                          @Nullable final List<String> keys,
+                                          @Nullable final Style style
+    ) {
+        return new AutoValueComparatorGenerator(project, targetClass, properties, keys, style).buildPlan();
+    }
+
+    private AutoValueComparatorGenerator(
+            @NotNull final Project project,
+            @NotNull final PsiClass targetClass,
+            @NotNull final List<AutoValueProperty> properties,
+            @Nullable final List<String> keys,
+            @Nullable final Style style
+    ) {
+        super(properties, project, targetClass);
+        this.keys = keys;
+        this.style = style;
+    }
+
+    @Nullable
+    static Style findStyle(@NotNull PsiClass targetClass) {
+        if (findCompareTo(targetClass) != null) {
+            return Style.COMPARE_TO;
+        }
+        if (findComparatorField(targetClass) != null) {
+            return Style.COMPARATOR;
+        }
+        return null;
+    }
+
+    // a static constant can't use the type parameters, and a lambda keeps it free of an anonymous class
+    static boolean isComparatorAvailable(@NotNull PsiClass targetClass) {
+        return !targetClass.hasTypeParameters() && PsiUtil.isLanguageLevel8OrHigher(targetClass);
+    }
+
+    // primitives and Comparable types, in property order
+    @NotNull
+    static List<AutoValueProperty> findComparableProperties(@NotNull List<AutoValueProperty> properties) {
+        final List<AutoValueProperty> comparableProperties = new ArrayList<>();
+        for (AutoValueProperty property : properties) {
+            if (isComparable(property.getType())) {
+                comparableProperties.add(property);
+            }
+        }
+        return comparableProperties;
+    }
+
+    // getters called by the existing compareTo() or COMPARATOR, in the order they are compared
+    @NotNull
+    static List<AutoValueProperty> findKeys(@NotNull PsiClass targetClass, @NotNull List<AutoValueProperty> properties) {
+        final PsiMethod compareTo = findCompareTo(targetClass);
+        final PsiField comparator = findComparatorField(targetClass);
+        final PsiElement comparison = compareTo != null
+                ? compareTo.getBody()
+                : comparator != null ? comparator.getInitializer() : null;
+        if (comparison == null) {
+            return Collections.emptyList();
+        }
+
+        final Map<String, AutoValueProperty> propertiesByName = new HashMap<>();
+        for (AutoValueProperty property : findComparableProperties(properties)) {
+            propertiesByName.put(property.getName(), property);
+        }
+        final Set<AutoValueProperty> keys = new LinkedHashSet<>();
+        for (PsiMethodCallExpression call : PsiTreeUtil.findChildrenOfType(comparison, PsiMethodCallExpression.class)) {
+            final AutoValueProperty property = propertiesByName.get(call.getMethodExpression().getReferenceName());
+            if (property != null && call.getArgumentList().getExpressionCount() == 0) {
+                keys.add(property);
+            }
+        }
+        return new ArrayList<>(keys);
+    }
+
+    // only a compareTo() or COMPARATOR rendered exactly like the plugin does for the keys it compares is kept in sync,
+    // reverse orders, Ordering chains, other null handling or tie-breakers are left alone
+    static boolean isGenerated(@NotNull PsiClass targetClass, @NotNull List<AutoValueProperty> properties) {
+        final List<AutoValueProperty> keyProperties = findKeys(targetClass, properties);
+        if (keyProperties.isEmpty()) {
+            return false;
+        }
+        final PsiMethod compareTo = findCompareTo(targetClass);
+        if (compareTo != null) {
+            final PsiCodeBlock body = compareTo.getBody();
+            return body != null && isSameText(body.getText(), "{\n" + renderStatements(keyProperties, "", "other.") + "}");
+        }
+        final PsiField comparator = findComparatorField(targetClass);
+        final PsiExpression initializer = comparator == null ? null : comparator.getInitializer();
+        return initializer != null && isSameText(initializer.getText(), renderLambda(keyProperties));
+    }
+
+    private static boolean isSameText(@NotNull String existing, @NotNull String rendered) {
+        return StringUtil.replace(existing, WHITESPACES, EMPTY_STRINGS)
+                .equals(StringUtil.replace(rendered, WHITESPACES, EMPTY_STRINGS));
+    }
+
+    @NotNull
+    @Override
+    protected String getGeneratorName() {
+        return "Comparator";
+    }
+
+    @Override
+    protected void fillPlan(@NotNull AutoValueMemberPlan plan) {
+        final Style targetStyle = style != null ? style : findStyle(targetClass);
+        if (targetStyle == null) {
+            return;
+        }
+        final List<AutoValueProperty> keyProperties = keys != null
+                ? findKeyProperties(keys)
+                : findKeys(targetClass, properties);
+        // a hand-written comparison is only replaced when chosen explicitly in the dialog
+        if (keys == null && !isGenerated(targetClass, properties)) {
+            return;
+        }
+
+        final PsiMethod compareTo = findCompareTo(targetClass);
+        final PsiJavaCodeReferenceElement comparableReference = findComparableReference(targetClass);
+        final PsiReferenceList implementsList = targetClass.getImplementsList();
+        if (targetStyle == Style.COMPARE_TO && !keyProperties.isEmpty()) {
+            final PsiMethod newCompareTo = psiElementFactory.createMethodFromText(renderCompareTo(keyProperties), targetClass);
+            plan.syncMethods(targetClass, Collections.singletonList(newCompareTo), null);
+            if (comparableReference == null && implementsList != null) {
+                plan.addReference(implementsList, psiElementFactory.createReferenceFromText(
+                        CommonClassNames.JAVA_LANG_COMPARABLE + "<" + renderType() + ">",
+                        targetClass
+                ));
+            }
+        } else if (compareTo != null) {
+            plan.deleteMethod(compareTo);
+            if (comparableReference != null) {
+                plan.deleteReference(comparableReference);
+            }
+        }
+
+        final PsiField comparator = findComparatorField(targetClass);
+        if (targetStyle == Style.COMPARATOR && !keyProperties.isEmpty() && isComparatorAvailable(targetClass)) {
+            plan.syncField(targetClass, psiElementFactory.createFieldFromText(renderComparator(keyProperties), targetClass));
+        } else if (comparator != null) {
+            plan.deleteField(comparator);
+        }
+    }
+
+    @NotNull
+    private List<AutoValueProperty> findKeyProperties(@NotNull List<String> keyNames) {
+        final List<AutoValueProperty> comparableProperties = findComparableProperties(properties);
+        final List<AutoValueProperty> keyProperties = new ArrayList<>();
+        for (String keyName : keyNames) {
+            for (AutoValueProperty property : comparableProperties) {
+                if (property.getName().equals(keyName)) {
+                    keyProperties.add(property);
+                    break;
+                }
+            }
+        }
+        return keyProperties;
+    }
+
+    @NotNull
+    private String renderCompareTo(@NotNull List<AutoValueProperty> keyProperties) {
+        return String.format(
+                "@%s public int %s(%s) {\n%s}",
+                CommonClassNames.JAVA_LANG_OVERRIDE,
+                COMPARE_TO_METHOD_NAME,
+                renderParameter(AutoValueProperty.Nullability.NONNULL, psiElementFactory.createType(targetClass), "other"),
+                renderStatements(keyProperties, "", "other.")
+        );
+    }
+
+    @NotNull
+    private String renderComparator(@NotNull List<AutoValueProperty> keyProperties) {
+        return String.format(
+                "%sstatic final %s<%s> %s = %s;",
+                renderSameVisibility(targetClass),
+                CommonClassNames.JAVA_UTIL_COMPARATOR,
+                renderType(),
+                COMPARATOR_FIELD_NAME,
+                renderLambda(keyProperties)
+        );
+    }
+
+    @NotNull
+    private static String renderLambda(@NotNull List<AutoValueProperty> keyProperties) {
+        final String lambdaBody = keyProperties.size() == 1
+                ? renderComparison(keyProperties.get(0), "left.", "right.")
+                : "{\n" + renderStatements(keyProperties, "left.", "right.") + "}";
+        return "(left, right) -> " + lambdaBody;
+    }
+
+    // keys are compared one by one and the first difference is returned
+    @NotNull
+    private static String renderStatements(
+            @NotNull List<AutoValueProperty> keyProperties,
+            @NotNull String leftQualifier,
+            @NotNull String rightQualifier
+    ) {
+        final StringBuilder statements = new StringBuilder();
+        for (int i = 0; i < keyProperties.size(); i++) {
+            final boolean last = i == keyProperties.size() - 1;
+            if (i > 0) {
+                statements.append("if (result != 0) {\nreturn result;\n}\n");
+            }
+            statements.append(last ? "return " : i == 0 ? "int result = " : "result = ")
+                    .append(renderComparison(keyProperties.get(i), leftQualifier, rightQualifier))
+                    .append(";\n");
+        }
+        return statements.toString();
+    }
+
+    // Integer.compare() and friends compare primitives without boxing them, null values go first
+    @NotNull
+    private static String renderComparison(
+            @NotNull AutoValueProperty property,
+            @NotNull String leftQualifier,
+            @NotNull String rightQualifier
+    ) {
+        final String left = leftQualifier + property.getName() + "()";
+        final String right = rightQualifier + property.getName() + "()";
+        final PsiType type = property.getType();
+        if (type instanceof PsiPrimitiveType) {
+            final String boxedTypeName = String.valueOf(((PsiPrimitiveType) type).getBoxedTypeName());
+            return String.format("%s.compare(%s, %s)", StringUtil.getShortName(boxedTypeName), left, right);
+        }
+        if (property.getNullability() == AutoValueProperty.Nullability.NULLABLE) {
+            return String.format(
+                    "%s == null ? (%s == null ? 0 : -1) : %s == null ? 1 : %s.compareTo(%s)",
+                    left, right, right, left, right
+            );
+        }
+        return String.format("%s.compareTo(%s)", left, right);
+    }
+
+    @NotNull
+    private String renderType() {
+        return psiElementFactory.createType(targetClass).getCanonicalText();
+    }
+
+    private static boolean isComparable(@NotNull PsiType type) {
+        if (type instanceof PsiPrimitiveType) {
+            return !PsiType.VOID.equals(type);
+        }
+        return InheritanceUtil.isInheritor(type, CommonClassNames.JAVA_LANG_COMPARABLE);
+    }
+
+    @Nullable
+    private static PsiMethod findCompareTo(@NotNull PsiClass targetClass) {
+        for (PsiMethod method : targetClass.findMethodsByName(COMPARE_TO_METHOD_NAME, false)) {
+            final PsiParameter[] parameters = method.getParameterList().getParameters();
+            if (!method.hasModifierProperty(PsiModifier.STATIC)
+                    && !method.hasModifierProperty(PsiModifier.ABSTRACT)
+                    && parameters.length == 1
+                    && targetClass.getManager().areElementsEquivalent(
+                            PsiUtil.resolveClassInType(parameters[0].getType()), targetClass)) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    @Nullable
+    private static PsiField findComparatorField(@NotNull PsiClass targetClass) {
+        final PsiField field = targetClass.findFieldByName(COMPARATOR_FIELD_NAME, false);
+        if (field == null || !field.hasModifierProperty(PsiModifier.STATIC)) {
+            return null;
+        }
+        return InheritanceUtil.isInheritor(field.getType(), CommonClassNames.JAVA_UTIL_COMPARATOR) ? field : null;
+    }
+
+    @Nullable
+    private static PsiJavaCodeReferenceElement findComparableReference(@NotNull PsiClass targetClass) {
+        final PsiReferenceList implementsList = targetClass.getImplementsList();
+        if (implementsList == null) {
+            return null;
+        }
+        for (PsiJavaCodeReferenceElement reference : implementsList.getReferenceElements()) {
+            if (CommonClassNames.JAVA_LANG_COMPARABLE.equals(reference.getQualifiedName())
+                    || "Comparable".equals(reference.getReferenceName())) {
+                return reference;
+            }
+        }
+        return null;
+    }
+}
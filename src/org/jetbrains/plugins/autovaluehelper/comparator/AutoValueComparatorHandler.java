@@ -0,0 +1,124 @@
+package org.jetbrains.plugins.autovaluehelper.comparator;
+
+import com.intellij.codeInsight.hint.HintManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.plugins.autovaluehelper.AutoValueBaseHelperHandler;
+import org.jetbrains.plugins.autovaluehelper.AutoValueMemberPlan;
+import org.jetbrains.plugins.autovaluehelper.AutoValueProperty;
+import org.jetbrains.plugins.autovaluehelper.AutoValuePropertyModel;
+
+import java.util.List;
+
+@Service
+public final class AutoValueComparatorHandler extends AutoValueBaseHelperHandler {
+
+    private static class ComparatorChoices {
+        @NotNull
+        private final List<AutoValueProperty> comparableProperties;
+        @NotNull
+        private final List<AutoValueProperty> keys;
+        // style the class already uses, null when it has no comparator yet
+        @Nullable
+        private final AutoValueComparatorGenerator.Style style;
+        private final boolean comparatorAvailable;
+
+        private ComparatorChoices(
+                @NotNull List<AutoValueProperty> comparableProperties,
+                @NotNull List<AutoValueProperty> keys,
+                @Nullable AutoValueComparatorGenerator.Style style,
+                boolean comparatorAvailable
+        ) {
+            this.comparableProperties = comparableProperties;
+            this.keys = keys;
+            this.style = style;
+            this.comparatorAvailable = comparatorAvailable;
+        }
+    }
+
+    // getter names chosen in the dialog, null keeps the keys the class already compares
+    @Nullable
+    private final List<String> keys;
+    @Nullable
+    private final AutoValueComparatorGenerator.Style style;
+
+    @NotNull
+    public static AutoValueComparatorHandler getInstance() {
+        return ServiceManager.getService(AutoValueComparatorHandler.class);
+    }
+
+    private AutoValueComparatorHandler() {
+        this(null, null);
+    }
+
+    private AutoValueComparatorHandler(
+            @Nullable List<String> keys,
+            @Nullable AutoValueComparatorGenerator.Style style
+    ) {
+        this.keys = keys;
+        this.style = style;
+    }
+
+    @Override
+    public void invoke(@NotNull Project project, @NotNull Editor editor, @NotNull PsiFile file) {
+        if (keys != null) {
+            super.invoke(project, editor, file);
+            return;
+        }
+
+        scheduleChooser(project, editor, file, AutoValueComparatorHandler::collectComparatorChoices, choices -> {
+            if (choices.comparableProperties.isEmpty()) {
+                HintManager.getInstance().showErrorHint(editor, "No primitive or Comparable properties to compare");
+                return;
+            }
+
+            final AutoValueComparatorDialog dialog = new AutoValueComparatorDialog(
+                    project,
+                    choices.comparableProperties,
+                    choices.keys,
+                    choices.style != null ? choices.style : AutoValueComparatorGenerator.Style.COMPARE_TO,
+                    choices.comparatorAvailable
+            );
+            if (!dialog.showAndGet()) {
+                return;
+            }
+            new AutoValueComparatorHandler(dialog.getSelectedKeys(), dialog.getSelectedStyle())
+                    .invoke(project, editor, file);
+        });
+    }
+
+    @NotNull
+    private static ComparatorChoices collectComparatorChoices(@NotNull PsiClass targetClass) {
+        final List<AutoValueProperty> properties = AutoValuePropertyModel.getInstance(targetClass).getProperties();
+        return new ComparatorChoices(
+                AutoValueComparatorGenerator.findComparableProperties(properties),
+                AutoValueComparatorGenerator.findKeys(targetClass, properties),
+                AutoValueComparatorGenerator.findStyle(targetClass),
+                AutoValueComparatorGenerator.isComparatorAvailable(targetClass)
+        );
+    }
+
+    @Override
+    protected boolean hasGeneratedMembers(@NotNull PsiClass targetClass) {
+        return AutoValueComparatorGenerator.isGenerated(
+                targetClass,
+                AutoValuePropertyModel.getInstance(targetClass).getProperties()
+        );
+    }
+
+    @NotNull
+    @Override
+    protected AutoValueMemberPlan createPlan(
+            @NotNull Project project,
+            @NotNull PsiClass targetClass,
+            @NotNull List<AutoValueProperty> properties
+    ) {
+        return AutoValueComparatorGenerator.createPlan(project, targetClass, properties, keys, style);
+    }
+}
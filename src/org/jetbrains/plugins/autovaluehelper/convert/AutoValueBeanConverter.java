@@ -0,0 +1,422 @@
+package org.jetbrains.plugins.autovaluehelper.convert;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.*;
+import com.intellij.psi.codeStyle.JavaCodeStyleManager;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.searches.ClassInheritorsSearch;
+import com.intellij.psi.search.searches.ReferencesSearch;
+import com.intellij.psi.util.PropertyUtilBase;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.util.PsiTypesUtil;
+import com.intellij.psi.util.PsiUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.plugins.autovaluehelper.AutoValueHelperSettings;
+import org.jetbrains.plugins.autovaluehelper.AutoValueMemberPlan;
+import org.jetbrains.plugins.autovaluehelper.AutoValueProperty;
+import org.jetbrains.plugins.autovaluehelper.AutoValueUtils;
+import org.jetbrains.plugins.autovaluehelper.builder.AutoValueBuilderHandler;
+
+import java.util.*;
+
+// turns a mutable JavaBean into an @AutoValue class with a Builder,
+// every new Bean() followed by setX() calls becomes Bean.builder().setX()...build()
+class AutoValueBeanConverter {
+
+    private static class Property {
+        @NotNull
+        private final PsiField field;
+        @NotNull
+        private final PsiMethod getter;
+        @Nullable
+        private final PsiMethod setter;
+        // setter of the generated Builder, every getter of a bean has a get/is prefix
+        @NotNull
+        private final String builderSetterName;
+
+        private Property(@NotNull PsiField field, @NotNull PsiMethod getter, @Nullable PsiMethod setter) {
+            this.field = field;
+            this.getter = getter;
+            this.setter = setter;
+            this.builderSetterName = AutoValueHelperSettings.getInstance().prefixedSetters
+                    ? "set" + StringUtil.capitalize(PropertyUtilBase.getPropertyNameByGetter(getter))
+                    : getter.getName();
+        }
+    }
+
+    // new Bean() and the setter calls on its local variable right after it
+    private static class Site {
+        @NotNull
+        private final PsiNewExpression newExpression;
+        @NotNull
+        private final List<PsiMethodCallExpression> setterCalls;
+
+        private Site(@NotNull PsiNewExpression newExpression, @NotNull List<PsiMethodCallExpression> setterCalls) {
+            this.newExpression = newExpression;
+            this.setterCalls = setterCalls;
+        }
+    }
+
+    @NotNull
+    private final Project project;
+    @NotNull
+    private final PsiClass bean;
+    @NotNull
+    private final List<Property> properties;
+    @NotNull
+    private final List<Site> sites;
+    // hand-written equals(), hashCode() and toString(), AutoValue generates its own
+    @NotNull
+    private final List<String> objectMethodNames;
+
+    private AutoValueBeanConverter(
+            @NotNull Project project,
+            @NotNull PsiClass bean,
+            @NotNull List<Property> properties,
+            @NotNull List<Site> sites,
+            @NotNull List<String> objectMethodNames
+    ) {
+        this.project = project;
+        this.bean = bean;
+        this.properties = properties;
+        this.sites = sites;
+        this.objectMethodNames = objectMethodNames;
+    }
+
+    @NotNull
+    PsiClass getBean() {
+        return bean;
+    }
+
+    int getSiteCount() {
+        return sites.size();
+    }
+
+    @NotNull
+    List<String> getObjectMethodNames() {
+        return objectMethodNames;
+    }
+
+    // null if the class is not a plain bean or some of its usages cannot be rewritten, called in a read action
+    @Nullable
+    static AutoValueBeanConverter analyze(@NotNull Project project, @NotNull PsiClass bean) {
+        final List<Property> properties = findProperties(bean);
+        if (properties == null) {
+            return null;
+        }
+
+        final GlobalSearchScope scope = GlobalSearchScope.projectScope(project);
+        // subclasses and anonymous classes can't extend an @AutoValue class
+        if (ClassInheritorsSearch.search(bean, scope, false).findFirst() != null) {
+            return null;
+        }
+
+        final List<Site> sites = new ArrayList<>();
+        final Set<PsiMethodCallExpression> rewrittenCalls = new HashSet<>();
+        for (PsiReference reference : ReferencesSearch.search(bean, scope).findAll()) {
+            final PsiElement element = reference.getElement();
+            final PsiElement parent = element.getParent();
+            if (parent instanceof PsiMethodReferenceExpression) {
+                return null;
+            }
+            if (parent instanceof PsiNewExpression && ((PsiNewExpression) parent).getClassReference() == element) {
+                final PsiNewExpression newExpression = (PsiNewExpression) parent;
+                if (newExpression.getArrayDimensions().length > 0 || newExpression.getArrayInitializer() != null) {
+                    continue;
+                }
+                final Site site = new Site(newExpression, findSetterCalls(newExpression, properties));
+                rewrittenCalls.addAll(site.setterCalls);
+                sites.add(site);
+            }
+        }
+
+        // the Builder has no counterpart for a setter called later on
+        for (Property property : properties) {
+            if (property.setter == null) {
+                continue;
+            }
+            for (PsiReference reference : ReferencesSearch.search(property.setter, scope).findAll()) {
+                if (!rewrittenCalls.contains(reference.getElement().getParent())) {
+                    return null;
+                }
+            }
+        }
+
+        final List<String> objectMethodNames = new ArrayList<>();
+        for (PsiMethod method : bean.getMethods()) {
+            if (isObjectMethod(method)) {
+                objectMethodNames.add(method.getName() + "()");
+            }
+        }
+        return new AutoValueBeanConverter(project, bean, properties, sites, objectMethodNames);
+    }
+
+    // false if the class was changed since the analysis, called in a write action
+    boolean convert() {
+        if (!isValid()) {
+            return false;
+        }
+
+        final PsiElementFactory factory = JavaPsiFacade.getElementFactory(project);
+        final JavaCodeStyleManager codeStyleManager = JavaCodeStyleManager.getInstance(project);
+        for (Site site : sites) {
+            rewriteSite(site, factory, codeStyleManager);
+        }
+
+        final PsiModifierList modifierList = bean.getModifierList();
+        assert modifierList != null;
+        modifierList.setModifierProperty(PsiModifier.FINAL, false);
+        modifierList.setModifierProperty(PsiModifier.ABSTRACT, true);
+        modifierList.addAnnotation(AutoValueUtils.AUTO_VALUE);
+        for (Property property : properties) {
+            property.getter.replace(createAbstractGetter(property.getter, factory));
+            if (property.setter != null) {
+                property.setter.delete();
+            }
+            property.field.delete();
+        }
+        // AutoValue generates equals(), hashCode() and toString() from the properties
+        for (PsiMethod method : bean.getMethods()) {
+            if (method.isConstructor() || isObjectMethod(method)) {
+                method.delete();
+            }
+        }
+        codeStyleManager.shortenClassReferences(bean);
+
+        final AutoValueMemberPlan plan = AutoValueBuilderHandler.getInstance().buildPlan(project, bean);
+        if (plan != null) {
+            plan.run();
+        }
+        return true;
+    }
+
+    private boolean isValid() {
+        if (!bean.isValid()) {
+            return false;
+        }
+        for (Property property : properties) {
+            if (!property.field.isValid()
+                    || !property.getter.isValid()
+                    || (property.setter != null && !property.setter.isValid())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rewriteSite(
+            @NotNull Site site,
+            @NotNull PsiElementFactory factory,
+            @NotNull JavaCodeStyleManager codeStyleManager
+    ) {
+        if (!site.newExpression.isValid()) {
+            return;
+        }
+        final StringBuilder text = new StringBuilder(bean.getQualifiedName()).append(".builder()");
+        final Set<Property> setProperties = new HashSet<>();
+        for (PsiMethodCallExpression call : site.setterCalls) {
+            final Property property = findPropertyBySetter(properties, call.resolveMethod());
+            if (property == null) {
+                return;
+            }
+            setProperties.add(property);
+            text.append('.')
+                    .append(property.builderSetterName)
+                    .append('(')
+                    .append(call.getArgumentList().getExpressions()[0].getText())
+                    .append(')');
+        }
+        // reference properties become @Nullable, unset primitives would make build() throw
+        for (Property property : properties) {
+            final PsiType type = property.field.getType();
+            if (type instanceof PsiPrimitiveType && !setProperties.contains(property)) {
+                text.append('.')
+                        .append(property.builderSetterName)
+                        .append('(')
+                        .append(PsiTypesUtil.getDefaultValueOfType(type))
+                        .append(')');
+            }
+        }
+        text.append(".build()");
+
+        final PsiElement builderCall = site.newExpression.replace(
+                factory.createExpressionFromText(text.toString(), site.newExpression)
+        );
+        for (PsiMethodCallExpression call : site.setterCalls) {
+            call.getParent().delete();
+        }
+        codeStyleManager.shortenClassReferences(builderCall);
+    }
+
+    @NotNull
+    private static PsiMethod createAbstractGetter(@NotNull PsiMethod getter, @NotNull PsiElementFactory factory) {
+        final PsiTypeElement returnTypeElement = getter.getReturnTypeElement();
+        assert returnTypeElement != null;
+        final PsiMethod abstractGetter = factory.createMethodFromText(
+                String.format("%s %s %s();", getter.getModifierList().getText(), returnTypeElement.getText(), getter.getName()),
+                getter
+        );
+        PsiUtil.setModifierProperty(abstractGetter, PsiModifier.ABSTRACT, true);
+        final PsiModifierList modifierList = abstractGetter.getModifierList();
+        if (!(returnTypeElement.getType() instanceof PsiPrimitiveType)
+                && modifierList.findAnnotation(AutoValueProperty.NULLABLE) == null) {
+            modifierList.addAnnotation(AutoValueProperty.NULLABLE);
+        }
+        return abstractGetter;
+    }
+
+    // private fields with getters, an optional setter and no other code touching them
+    @Nullable
+    private static List<Property> findProperties(@NotNull PsiClass bean) {
+        if (bean.isInterface()
+                || bean.isEnum()
+                || bean.isAnnotationType()
+                || bean.hasModifierProperty(PsiModifier.ABSTRACT)
+                || bean.hasModifierProperty(PsiModifier.PRIVATE)
+                || bean.hasTypeParameters()
+                || bean.getExtendsListTypes().length > 0
+                || AutoValueUtils.isAutoValueClass(bean)) {
+            return null;
+        }
+        if (bean.getContainingClass() != null && !bean.hasModifierProperty(PsiModifier.STATIC)) {
+            return null;
+        }
+        for (PsiClassInitializer initializer : bean.getInitializers()) {
+            if (!initializer.hasModifierProperty(PsiModifier.STATIC)) {
+                return null;
+            }
+        }
+        for (PsiClass innerClass : bean.getInnerClasses()) {
+            if (!innerClass.hasModifierProperty(PsiModifier.STATIC)) {
+                return null;
+            }
+        }
+
+        final List<Property> properties = new ArrayList<>();
+        for (PsiField field : bean.getFields()) {
+            if (field.hasModifierProperty(PsiModifier.STATIC)) {
+                continue;
+            }
+            if (!field.hasModifierProperty(PsiModifier.PRIVATE) || field.hasInitializer()) {
+                return null;
+            }
+            final PsiMethod getter = PropertyUtilBase.findGetterForField(field);
+            if (getter == null
+                    || getter.hasModifierProperty(PsiModifier.PRIVATE)
+                    || getter.hasModifierProperty(PsiModifier.STATIC)) {
+                return null;
+            }
+            properties.add(new Property(field, getter, PropertyUtilBase.findSetterForField(field)));
+        }
+        if (properties.isEmpty()) {
+            return null;
+        }
+
+        for (PsiMethod method : bean.getMethods()) {
+            if (method.isConstructor()) {
+                final PsiCodeBlock body = method.getBody();
+                if (method.getParameterList().getParametersCount() > 0 || body == null || body.getStatements().length > 0) {
+                    return null;
+                }
+            } else if (!isObjectMethod(method) && !isAccessor(method, properties) && referencesFields(method, properties)) {
+                return null;
+            }
+        }
+        return properties;
+    }
+
+    // setX() statements on the variable initialized with new Bean(), stops at the first other statement
+    @NotNull
+    private static List<PsiMethodCallExpression> findSetterCalls(
+            @NotNull PsiNewExpression newExpression,
+            @NotNull List<Property> properties
+    ) {
+        final List<PsiMethodCallExpression> setterCalls = new ArrayList<>();
+        final PsiElement parent = newExpression.getParent();
+        if (!(parent instanceof PsiLocalVariable) || !(parent.getParent() instanceof PsiDeclarationStatement)) {
+            return setterCalls;
+        }
+        final PsiLocalVariable variable = (PsiLocalVariable) parent;
+        PsiElement next = PsiTreeUtil.skipWhitespacesAndCommentsForward(variable.getParent());
+        while (next instanceof PsiExpressionStatement) {
+            final PsiExpression expression = ((PsiExpressionStatement) next).getExpression();
+            if (!(expression instanceof PsiMethodCallExpression)) {
+                break;
+            }
+            final PsiMethodCallExpression call = (PsiMethodCallExpression) expression;
+            final PsiExpression qualifier = call.getMethodExpression().getQualifierExpression();
+            if (!(qualifier instanceof PsiReferenceExpression)
+                    || ((PsiReferenceExpression) qualifier).resolve() != variable
+                    || findPropertyBySetter(properties, call.resolveMethod()) == null) {
+                break;
+            }
+            final PsiExpression[] arguments = call.getArgumentList().getExpressions();
+            if (arguments.length != 1 || isReferenced(variable, arguments[0])) {
+                break;
+            }
+            setterCalls.add(call);
+            next = PsiTreeUtil.skipWhitespacesAndCommentsForward(next);
+        }
+        return setterCalls;
+    }
+
+    @Nullable
+    private static Property findPropertyBySetter(@NotNull List<Property> properties, @Nullable PsiMethod method) {
+        if (method == null) {
+            return null;
+        }
+        for (Property property : properties) {
+            if (method.equals(property.setter)) {
+                return property;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isAccessor(@NotNull PsiMethod method, @NotNull List<Property> properties) {
+        for (Property property : properties) {
+            if (method.equals(property.getter) || method.equals(property.setter)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isObjectMethod(@NotNull PsiMethod method) {
+        final int parametersCount = method.getParameterList().getParametersCount();
+        switch (method.getName()) {
+            case "equals":
+                return parametersCount == 1;
+            case "hashCode":
+            case "toString":
+                return parametersCount == 0;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean referencesFields(@NotNull PsiMethod method, @NotNull List<Property> properties) {
+        final Set<PsiField> fields = new HashSet<>();
+        for (Property property : properties) {
+            fields.add(property.field);
+        }
+        for (PsiReferenceExpression reference : PsiTreeUtil.findChildrenOfType(method, PsiReferenceExpression.class)) {
+            final PsiElement target = reference.resolve();
+            if (target instanceof PsiField && fields.contains(target)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isReferenced(@NotNull PsiVariable variable, @NotNull PsiElement scope) {
+        for (PsiReferenceExpression reference : PsiTreeUtil.findChildrenOfType(scope, PsiReferenceExpression.class)) {
+            if (reference.resolve() == variable) {
+                return true;
+            }
+        }
+        return scope instanceof PsiReferenceExpression && ((PsiReferenceExpression) scope).resolve() == variable;
+    }
+}
@@ -0,0 +1,199 @@
+package org.jetbrains.plugins.autovaluehelper.convert;
+
+import com.intellij.analysis.AnalysisScope;
+import com.intellij.analysis.BaseAnalysisAction;
+import com.intellij.codeInsight.FileModificationService;
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationType;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.plugins.autovaluehelper.AutoValueUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AutoValueConvertBeansAction extends BaseAnalysisAction {
+
+    private static final String TITLE = "Convert JavaBeans to AutoValue";
+    private static final int WRITE_BATCH_SIZE = 20;
+    private static final int MAX_LISTED_OBJECT_METHODS = 10;
+
+    public AutoValueConvertBeansAction() {
+        super(TITLE, "Convert");
+    }
+
+    @Override
+    protected void analyze(@NotNull final Project project, @NotNull final AnalysisScope scope) {
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, TITLE, true) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                convert(project, scope, indicator);
+            }
+        });
+    }
+
+    private void convert(
+            @NotNull final Project project,
+            @NotNull final AnalysisScope scope,
+            @NotNull final ProgressIndicator indicator
+    ) {
+        indicator.setIndeterminate(true);
+        indicator.setText("Searching for JavaBeans...");
+        final List<VirtualFile> files = new ArrayList<>();
+        scope.accept(file -> {
+            if (!file.isDirectory()) {
+                files.add(file);
+            }
+            return true;
+        });
+
+        // every bean is analyzed in its own read action, searching for usages is the expensive part
+        indicator.setIndeterminate(false);
+        final DumbService dumbService = DumbService.getInstance(project);
+        final List<AutoValueBeanConverter> converters = new ArrayList<>();
+        int processed = 0;
+        for (VirtualFile file : files) {
+            indicator.checkCanceled();
+            indicator.setText2(file.getPresentableUrl());
+            final List<PsiClass> classes = dumbService.runReadActionInSmartMode(() -> findClasses(project, file));
+            for (PsiClass clazz : classes) {
+                final AutoValueBeanConverter converter = dumbService.runReadActionInSmartMode(
+                        () -> clazz.isValid() ? AutoValueBeanConverter.analyze(project, clazz) : null
+                );
+                if (converter != null) {
+                    converters.add(converter);
+                }
+            }
+            indicator.setFraction((double) ++processed / files.size());
+        }
+        indicator.setText2(null);
+        if (converters.isEmpty()) {
+            notify(project, "No convertible JavaBeans found in " + scope.getDisplayName());
+            return;
+        }
+
+        int siteCount = 0;
+        for (AutoValueBeanConverter converter : converters) {
+            siteCount += converter.getSiteCount();
+        }
+        final StringBuilder question = new StringBuilder(String.format(
+                "Convert %d JavaBeans in %s to @AutoValue classes and rewrite %d constructor calls to builders?",
+                converters.size(), scope.getDisplayName(), siteCount
+        ));
+        // AutoValue replaces them with its own, compared and printed by every property
+        final List<String> objectMethods = ReadAction.compute(() -> renderObjectMethods(converters));
+        if (!objectMethods.isEmpty()) {
+            question.append("\n\nThese hand-written methods will be deleted:\n")
+                    .append(StringUtil.join(objectMethods, "\n"));
+        }
+        final boolean[] confirmed = {false};
+        ApplicationManager.getApplication().invokeAndWait(
+                () -> confirmed[0] = Messages.showYesNoDialog(project, question.toString(), TITLE, Messages.getQuestionIcon())
+                        == Messages.YES,
+                ModalityState.defaultModalityState()
+        );
+        if (!confirmed[0]) {
+            return;
+        }
+
+        // every batch is a separate undoable command, a bean and its usages are always converted together
+        indicator.setText("Converting...");
+        int converted = 0;
+        for (int start = 0; start < converters.size(); start += WRITE_BATCH_SIZE) {
+            indicator.checkCanceled();
+            dumbService.waitForSmartMode();
+            final int end = Math.min(start + WRITE_BATCH_SIZE, converters.size());
+            final List<AutoValueBeanConverter> batch = converters.subList(start, end);
+            final List<PsiClass> batchClasses = new ArrayList<>();
+            for (AutoValueBeanConverter converter : batch) {
+                batchClasses.add(converter.getBean());
+            }
+            final AtomicInteger batchConverted = new AtomicInteger();
+            ApplicationManager.getApplication().invokeAndWait(() -> {
+                if (project.isDisposed()
+                        || dumbService.isDumb()
+                        || !FileModificationService.getInstance().preparePsiElementsForWrite(batchClasses)) {
+                    return;
+                }
+                WriteCommandAction.runWriteCommandAction(project, TITLE, null, () -> {
+                    for (AutoValueBeanConverter converter : batch) {
+                        // code may have changed while the dialog was open, so usages are searched again;
+                        // a bean that got new hand-written methods was not confirmed and is left as it is
+                        final AutoValueBeanConverter current = converter.getBean().isValid()
+                                ? AutoValueBeanConverter.analyze(project, converter.getBean())
+                                : null;
+                        if (current != null
+                                && current.getObjectMethodNames().equals(converter.getObjectMethodNames())
+                                && current.convert()) {
+                            batchConverted.incrementAndGet();
+                        }
+                    }
+                });
+            }, ModalityState.defaultModalityState());
+            converted += batchConverted.get();
+            indicator.setFraction((double) end / converters.size());
+        }
+
+        notify(project, String.format("Converted %d of %d JavaBeans to @AutoValue", converted, converters.size()));
+    }
+
+    // e.g. com.example.Bean: equals(), hashCode(); the list is cut after MAX_LISTED_OBJECT_METHODS beans
+    @NotNull
+    private static List<String> renderObjectMethods(@NotNull List<AutoValueBeanConverter> converters) {
+        final List<String> objectMethods = new ArrayList<>();
+        int beanCount = 0;
+        for (AutoValueBeanConverter converter : converters) {
+            if (converter.getObjectMethodNames().isEmpty() || !converter.getBean().isValid()) {
+                continue;
+            }
+            if (++beanCount > MAX_LISTED_OBJECT_METHODS) {
+                continue;
+            }
+            objectMethods.add(converter.getBean().getQualifiedName() + ": "
+                    + StringUtil.join(converter.getObjectMethodNames(), ", "));
+        }
+        if (beanCount > MAX_LISTED_OBJECT_METHODS) {
+            objectMethods.add("and " + (beanCount - MAX_LISTED_OBJECT_METHODS) + " more classes");
+        }
+        return objectMethods;
+    }
+
+    // top level and static nested classes, AutoValue can't generate inner classes
+    @NotNull
+    private static List<PsiClass> findClasses(@NotNull Project project, @NotNull VirtualFile file) {
+        final List<PsiClass> classes = new ArrayList<>();
+        final PsiFile psiFile = file.isValid() ? PsiManager.getInstance(project).findFile(file) : null;
+        if (psiFile instanceof PsiJavaFile) {
+            for (PsiClass clazz : ((PsiJavaFile) psiFile).getClasses()) {
+                collectClasses(clazz, classes);
+            }
+        }
+        return classes;
+    }
+
+    private static void collectClasses(@NotNull PsiClass clazz, @NotNull List<PsiClass> classes) {
+        classes.add(clazz);
+        for (PsiClass innerClass : clazz.getInnerClasses()) {
+            if (innerClass.hasModifierProperty(PsiModifier.STATIC)) {
+                collectClasses(innerClass, classes);
+            }
+        }
+    }
+
+    private static void notify(@NotNull Project project, @NotNull String content) {
+        new Notification(AutoValueUtils.NOTIFICATION_GROUP, TITLE, content, NotificationType.INFORMATION).notify(project);
+    }
+}
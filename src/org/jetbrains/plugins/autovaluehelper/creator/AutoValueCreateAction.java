@@ -5,6 +5,6 @@ import org.jetbrains.plugins.autovaluehelper.AutoValueBaseHelperAction;
 public class AutoValueCreateAction extends AutoValueBaseHelperAction {
 
     public AutoValueCreateAction() {
-        super(new AutoValueCreateHandler());
+        super(AutoValueCreateHandler::getInstance);
     }
 }
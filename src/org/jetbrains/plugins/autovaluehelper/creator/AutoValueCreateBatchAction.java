@@ -0,0 +1,10 @@
+package org.jetbrains.plugins.autovaluehelper.creator;
+
+import org.jetbrains.plugins.autovaluehelper.AutoValueBaseBatchAction;
+
+public class AutoValueCreateBatchAction extends AutoValueBaseBatchAction {
+
+    public AutoValueCreateBatchAction() {
+        super("Regenerate AutoValue Create Methods", AutoValueCreateHandler::getInstance);
+    }
+}
@@ -0,0 +1,270 @@
+package org.jetbrains.plugins.autovaluehelper.creator;
+
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationType;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.*;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.LocalSearchScope;
+import com.intellij.psi.search.PsiSearchHelper;
+import com.intellij.psi.search.UsageSearchContext;
+import com.intellij.psi.search.searches.ReferencesSearch;
+import com.intellij.psi.util.PsiModificationTracker;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.plugins.autovaluehelper.AutoValueMemberPlan;
+import org.jetbrains.plugins.autovaluehelper.AutoValueUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// regenerates create() and rewrites the arguments of every call of the old create()
+class AutoValueCreateCallSiteUpdater extends Task.Backgroundable {
+
+    private static final String UPDATE_COMMAND_NAME = "Update create() Call Sites";
+    private static final int WRITE_BATCH_SIZE = 200;
+    private static final int MAX_REPORTED_CALL_SITES = 20;
+
+    @NotNull
+    private final String commandName;
+    @NotNull
+    private final PsiMethod oldCreateMethod;
+    @NotNull
+    private final AutoValueMemberPlan plan;
+    // PSI modification count the plan was computed at
+    private final long modificationCount;
+    private final int oldParameterCount;
+    // index of the old argument passed to each new parameter, -1 where the default is inserted
+    @NotNull
+    private final List<Integer> argumentIndices;
+    @NotNull
+    private final List<String> newParameterNames;
+    @NotNull
+    private final List<String> newParameterDefaults;
+
+    AutoValueCreateCallSiteUpdater(
+            @NotNull Project project,
+            @NotNull String commandName,
+            @NotNull PsiMethod oldCreateMethod,
+            @NotNull AutoValueMemberPlan plan,
+            @NotNull List<Integer> argumentIndices,
+            @NotNull List<String> newParameterNames,
+            @NotNull List<String> newParameterDefaults
+    ) {
+        super(project, UPDATE_COMMAND_NAME, true);
+        this.commandName = commandName;
+        this.oldCreateMethod = oldCreateMethod;
+        this.plan = plan;
+        this.modificationCount = getModificationCount(project);
+        this.oldParameterCount = oldCreateMethod.getParameterList().getParametersCount();
+        this.argumentIndices = argumentIndices;
+        this.newParameterNames = newParameterNames;
+        this.newParameterDefaults = newParameterDefaults;
+    }
+
+    @Override
+    public void run(@NotNull ProgressIndicator indicator) {
+        final Project project = getProject();
+
+        // calls have to be found while they still resolve to the old signature
+        indicator.setIndeterminate(true);
+        indicator.setText("Searching for create() call sites...");
+        final List<VirtualFile> candidateFiles = ReadAction.compute(() -> {
+            final List<VirtualFile> files = new ArrayList<>();
+            if (oldCreateMethod.isValid()) {
+                PsiSearchHelper.getInstance(project).processCandidateFilesForText(
+                        GlobalSearchScope.projectScope(project),
+                        UsageSearchContext.IN_CODE,
+                        true,
+                        oldCreateMethod.getName(),
+                        files::add
+                );
+            }
+            return files;
+        });
+        if (candidateFiles.isEmpty()) {
+            regenerate(project);
+            return;
+        }
+
+        // every file containing the word is searched on its own, in parallel and in a short read action
+        indicator.setIndeterminate(false);
+        final SmartPointerManager pointerManager = SmartPointerManager.getInstance(project);
+        final PsiManager psiManager = PsiManager.getInstance(project);
+        final List<SmartPsiElementPointer<PsiMethodCallExpression>> callSites =
+                Collections.synchronizedList(new ArrayList<>());
+        final AtomicInteger searched = new AtomicInteger();
+        JobLauncher.getInstance().invokeConcurrentlyUnderProgress(candidateFiles, indicator, virtualFile -> {
+            ReadAction.run(() -> {
+                final PsiFile file = virtualFile.isValid() ? psiManager.findFile(virtualFile) : null;
+                if (file == null || !oldCreateMethod.isValid()) {
+                    return;
+                }
+                for (PsiReference reference : ReferencesSearch.search(oldCreateMethod, new LocalSearchScope(file)).findAll()) {
+                    final PsiElement element = reference.getElement();
+                    final PsiElement parent = element.getParent();
+                    if (parent instanceof PsiMethodCallExpression
+                            && ((PsiMethodCallExpression) parent).getMethodExpression() == element) {
+                        callSites.add(pointerManager.createSmartPsiElementPointer((PsiMethodCallExpression) parent));
+                    }
+                }
+            });
+            indicator.setFraction((double) searched.incrementAndGet() / candidateFiles.size());
+            return true;
+        });
+
+        indicator.setIndeterminate(true);
+        if (!regenerate(project)) {
+            return;
+        }
+
+        // arguments are rewritten in batches, so the EDT is never blocked for long
+        indicator.setIndeterminate(false);
+        indicator.setText("Updating " + callSites.size() + " create() call sites...");
+        final List<String> skippedCallSites = new ArrayList<>();
+        final List<String> defaultedCallSites = new ArrayList<>();
+        final int[] updated = {0};
+        for (int start = 0; start < callSites.size(); start += WRITE_BATCH_SIZE) {
+            indicator.checkCanceled();
+            final int end = Math.min(start + WRITE_BATCH_SIZE, callSites.size());
+            final List<SmartPsiElementPointer<PsiMethodCallExpression>> batch = callSites.subList(start, end);
+            ApplicationManager.getApplication().invokeAndWait(() -> {
+                if (project.isDisposed()) {
+                    return;
+                }
+                WriteCommandAction.runWriteCommandAction(project, UPDATE_COMMAND_NAME, null, () -> {
+                    for (SmartPsiElementPointer<PsiMethodCallExpression> callSite : batch) {
+                        final PsiMethodCallExpression call = callSite.getElement();
+                        if (call == null) {
+                            continue;
+                        }
+                        final String location = describeLocation(call);
+                        if (!rewriteArguments(call)) {
+                            skippedCallSites.add(location);
+                        } else {
+                            updated[0]++;
+                            if (argumentIndices.contains(-1)) {
+                                defaultedCallSites.add(location);
+                            }
+                        }
+                    }
+                });
+            }, ModalityState.defaultModalityState());
+            indicator.setFraction((double) end / callSites.size());
+        }
+        report(project, updated[0], skippedCallSites, defaultedCallSites);
+    }
+
+    // false when the class was changed since the plan was computed, call sites are left as they are then
+    private boolean regenerate(@NotNull Project project) {
+        final boolean[] regenerated = {false};
+        ApplicationManager.getApplication().invokeAndWait(() -> {
+            if (project.isDisposed()) {
+                return;
+            }
+            if (modificationCount != getModificationCount(project) || !plan.isValid()) {
+                notify(project, "The class was changed while call sites were searched, run Generate create() again.",
+                        NotificationType.WARNING);
+                return;
+            }
+            WriteCommandAction.runWriteCommandAction(project, commandName, null, plan);
+            regenerated[0] = true;
+        }, ModalityState.defaultModalityState());
+        return regenerated[0];
+    }
+
+    // call sites with another argument count are skipped, they do not call the old create()
+    private boolean rewriteArguments(@NotNull PsiMethodCallExpression call) {
+        final PsiExpressionList argumentList = call.getArgumentList();
+        final PsiExpression[] oldArguments = argumentList.getExpressions();
+        if (oldArguments.length != oldParameterCount) {
+            return false;
+        }
+
+        final StringBuilder newArguments = new StringBuilder("create(");
+        for (int i = 0; i < argumentIndices.size(); i++) {
+            if (i > 0) {
+                newArguments.append(", ");
+            }
+            final int oldIndex = argumentIndices.get(i);
+            newArguments.append(oldIndex >= 0 ? oldArguments[oldIndex].getText() : newParameterDefaults.get(i));
+        }
+        newArguments.append(')');
+
+        final PsiElementFactory factory = JavaPsiFacade.getElementFactory(call.getProject());
+        final PsiMethodCallExpression newCall =
+                (PsiMethodCallExpression) factory.createExpressionFromText(newArguments.toString(), call);
+        argumentList.replace(newCall.getArgumentList());
+        return true;
+    }
+
+    private void report(
+            @NotNull Project project,
+            int updated,
+            @NotNull List<String> skippedCallSites,
+            @NotNull List<String> defaultedCallSites
+    ) {
+        if (skippedCallSites.isEmpty() && defaultedCallSites.isEmpty()) {
+            return;
+        }
+        final StringBuilder content = new StringBuilder("Updated ").append(updated).append(" create() call sites.");
+        if (!defaultedCallSites.isEmpty()) {
+            final List<String> defaultedParameters = new ArrayList<>();
+            for (int i = 0; i < argumentIndices.size(); i++) {
+                if (argumentIndices.get(i) < 0) {
+                    defaultedParameters.add(newParameterNames.get(i));
+                }
+            }
+            content.append("<br>Check the defaults passed for ").append(StringUtil.join(defaultedParameters, ", "))
+                    .append(" in ").append(renderLocations(defaultedCallSites));
+        }
+        if (!skippedCallSites.isEmpty()) {
+            content.append("<br>Left unchanged, the argument count does not match: ")
+                    .append(renderLocations(skippedCallSites));
+        }
+        notify(project, content.toString(), skippedCallSites.isEmpty()
+                ? NotificationType.INFORMATION
+                : NotificationType.WARNING);
+    }
+
+    @NotNull
+    private static String renderLocations(@NotNull List<String> locations) {
+        final List<String> sortedLocations = new ArrayList<>(locations);
+        Collections.sort(sortedLocations);
+        if (sortedLocations.size() <= MAX_REPORTED_CALL_SITES) {
+            return StringUtil.join(sortedLocations, ", ");
+        }
+        return StringUtil.join(sortedLocations.subList(0, MAX_REPORTED_CALL_SITES), ", ")
+                + " and " + (sortedLocations.size() - MAX_REPORTED_CALL_SITES) + " more";
+    }
+
+    // e.g. Foo.java:42
+    @NotNull
+    private static String describeLocation(@NotNull PsiElement element) {
+        final PsiFile file = element.getContainingFile();
+        final Document document = PsiDocumentManager.getInstance(element.getProject()).getDocument(file);
+        final String fileName = file.getName();
+        return document == null
+                ? fileName
+                : fileName + ":" + (document.getLineNumber(element.getTextRange().getStartOffset()) + 1);
+    }
+
+    private static void notify(@NotNull Project project, @NotNull String content, @NotNull NotificationType type) {
+        new Notification(AutoValueUtils.NOTIFICATION_GROUP, UPDATE_COMMAND_NAME, content, type).notify(project);
+    }
+
+    private static long getModificationCount(@NotNull Project project) {
+        return PsiModificationTracker.SERVICE.getInstance(project).getModificationCount();
+    }
+}
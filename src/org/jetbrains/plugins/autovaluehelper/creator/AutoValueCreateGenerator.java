@@ -1,96 +1,69 @@
 package org.jetbrains.plugins.autovaluehelper.creator;
 
-import com.intellij.codeInsight.generation.PsiMethodMember;
-import com.intellij.openapi.application.ApplicationManager;
-import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.*;
-import com.intellij.psi.codeStyle.CodeStyleManager;
-import com.intellij.psi.codeStyle.JavaCodeStyleManager;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.plugins.autovaluehelper.AutoValueBaseHelperGenerator;
-import org.jetbrains.plugins.autovaluehelper.AutoValueUtils;
+import org.jetbrains.plugins.autovaluehelper.AutoValueMemberPlan;
+import org.jetbrains.plugins.autovaluehelper.AutoValueProperty;
 
+import java.util.Collections;
 import java.util.List;
 
 class AutoValueCreateGenerator extends AutoValueBaseHelperGenerator {
 
-    private final Project project;
-    private final PsiFile file;
-    private final Editor editor;
-    private final PsiElementFactory psiElementFactory;
-
-    static void generate(@NotNull final Project project,
-                         @NotNull final Editor editor,
-                         @NotNull final PsiFile file,
-                         @NotNull final List<PsiMethodMember> selectedMethods
+    @NotNull
+    static AutoValueMemberPlan createPlan(@NotNull final Project project,
+                                          @NotNull final PsiClass targetClass,
+                                          @NotNull final List<AutoValueProperty> properties
     ) {
-        final Runnable builderGenerator = new AutoValueCreateGenerator(project, file, editor, selectedMethods);
-        ApplicationManager.getApplication().runWriteAction(builderGenerator);
+        return new AutoValueCreateGenerator(project, targetClass, properties).buildPlan();
     }
 
     private AutoValueCreateGenerator(
             @NotNull final Project project,
-            @NotNull final PsiFile file,
-            @NotNull final Editor editor,
-            @NotNull final List<PsiMethodMember> selectedMethods
+            @NotNull final PsiClass targetClass,
+            @NotNull final List<AutoValueProperty> properties
     ) {
-        super(selectedMethods, project);
-        this.project = project;
-        this.file = file;
-        this.editor = editor;
-        this.psiElementFactory = JavaPsiFacade.getInstance(project).getElementFactory();
+        super(properties, project, targetClass);
     }
 
+    @NotNull
     @Override
-    public void run() {
-        final PsiClass targetClass = AutoValueUtils.getStaticOrTopLevelClass(file, editor);
-        if (targetClass == null) {
-            return;
-        }
+    protected String getGeneratorName() {
+        return "create()";
+    }
 
+    @Override
+    protected void fillPlan(@NotNull AutoValueMemberPlan plan) {
         // generate create() method
-        final PsiMethod newBuilderMethod = generateCreateMethod(targetClass);
-        addMethod(targetClass, null, newBuilderMethod);
-
-        JavaCodeStyleManager.getInstance(project).shortenClassReferences(file);
-        CodeStyleManager.getInstance(project).reformat(targetClass);
+        final PsiMethod newCreateMethod = psiElementFactory.createMethodFromText(renderCreateMethod(), targetClass);
+        plan.syncMethods(targetClass, Collections.singletonList(newCreateMethod), null);
+        syncInterner(plan);
     }
 
     @NotNull
-    private PsiMethod generateCreateMethod(@NotNull PsiClass targetClass) {
-        final PsiMethod createMethod = psiElementFactory
-                .createMethod("create", psiElementFactory.createType(targetClass));
-        createMethod.getModifierList().addAnnotation(NONNULL);
-        createMethod.getModifierList().setModifierProperty(PsiModifier.STATIC, true);
-        setSameVisibility(targetClass, createMethod);
-
-        final StringBuilder parametersList = new StringBuilder();
-        for (PsiMethodMember member : selectedMethods) {
-            final PsiMethod getterMethod = member.getElement();
-            final PsiType parameterType = getterMethod.getReturnType();
-            final String parameterName = getterMethod.getName();
-            assert parameterType != null;
-
-            final PsiParameter setterParameter = createSetterParameter(getterMethod, parameterType, parameterName);
-            createMethod.getParameterList().add(setterParameter);
-
-            if (parametersList.length() > 0) {
-                parametersList.append(",");
+    private String renderCreateMethod() {
+        final StringBuilder parameters = new StringBuilder();
+        final StringBuilder arguments = new StringBuilder();
+        for (AutoValueProperty property : properties) {
+            final String parameterName = property.getName();
+            if (arguments.length() > 0) {
+                parameters.append(",");
+                arguments.append(",");
             }
-            parametersList.append(parameterName);
+            parameters.append(renderSetterParameter(property, property.getType(), parameterName));
+            arguments.append(parameterName);
         }
 
-        final String className = getAutoValueClassName(targetClass);
-
-        final PsiStatement returnStatement = psiElementFactory.createStatementFromText(
-                String.format("return new %s(%s);", className, parametersList.toString()),
-                createMethod
+        final String newInstance = "new " + getAutoValueClassName(targetClass) + "(" + arguments + ")";
+        return String.format(
+                "@%s %sstatic %s create(%s) {\nreturn %s;\n}",
+                NONNULL,
+                renderSameVisibility(targetClass),
+                psiElementFactory.createType(targetClass).getCanonicalText(),
+                parameters,
+                isInterning() ? INTERNER_FIELD_NAME + ".intern(" + newInstance + ")" : newInstance
         );
-        final PsiCodeBlock body = createMethod.getBody();
-        assert body != null;
-        body.add(returnStatement);
-
-        return createMethod;
     }
 }
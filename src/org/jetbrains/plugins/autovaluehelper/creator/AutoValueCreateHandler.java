@@ -1,23 +1,139 @@
 package org.jetbrains.plugins.autovaluehelper.creator;
 
-import com.intellij.codeInsight.generation.PsiMethodMember;
-import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.project.Project;
-import com.intellij.psi.PsiFile;
+import com.intellij.psi.*;
+import com.intellij.psi.util.PsiTypesUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.plugins.autovaluehelper.AutoValueBaseHelperHandler;
+import org.jetbrains.plugins.autovaluehelper.AutoValueHelperSettings;
+import org.jetbrains.plugins.autovaluehelper.AutoValueMemberPlan;
+import org.jetbrains.plugins.autovaluehelper.AutoValueProperty;
+import org.jetbrains.plugins.autovaluehelper.AutoValuePropertyModel;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
-class AutoValueCreateHandler extends AutoValueBaseHelperHandler {
+@Service
+public final class AutoValueCreateHandler extends AutoValueBaseHelperHandler {
+
+    private static final String CREATE_METHOD_NAME = "create";
+
+    @NotNull
+    public static AutoValueCreateHandler getInstance() {
+        return ServiceManager.getService(AutoValueCreateHandler.class);
+    }
+
+    private AutoValueCreateHandler() {
+    }
 
     @Override
-    protected void generate(
+    protected boolean hasGeneratedMembers(@NotNull PsiClass targetClass) {
+        return !findCreateMethods(targetClass).isEmpty();
+    }
+
+    @Override
+    protected void applyPlan(
             @NotNull Project project,
-            @NotNull Editor editor,
             @NotNull PsiFile file,
-            @NotNull List<PsiMethodMember> existingFields
+            @NotNull PsiClass targetClass,
+            @NotNull AutoValueMemberPlan plan
+    ) {
+        final AutoValueHelperSettings settings = AutoValueHelperSettings.getInstance();
+        final List<PsiMethod> createMethods = findCreateMethods(targetClass);
+        // with overloads it is unclear which one the new create() replaces,
+        // a hand-written create() the new one is only added next to keeps its callers
+        if (!settings.updateCreateCallSites || createMethods.size() != 1 || !plan.isReplaced(createMethods.get(0))) {
+            super.applyPlan(project, file, targetClass, plan);
+            return;
+        }
+
+        final PsiMethod oldCreateMethod = createMethods.get(0);
+        final PsiParameter[] oldParameters = oldCreateMethod.getParameterList().getParameters();
+        final List<String> oldParameterNames = new ArrayList<>();
+        for (PsiParameter parameter : oldParameters) {
+            oldParameterNames.add(parameter.getName());
+        }
+        final List<AutoValueProperty> properties = AutoValuePropertyModel.getInstance(targetClass).getProperties();
+        final List<String> newParameterNames = new ArrayList<>();
+        final List<String> newParameterDefaults = new ArrayList<>();
+        for (AutoValueProperty property : properties) {
+            newParameterNames.add(property.getName());
+            newParameterDefaults.add(
+                    property.getType() instanceof PsiPrimitiveType || settings.createCallSiteDefault.isEmpty()
+                            ? PsiTypesUtil.getDefaultValueOfType(property.getType())
+                            : settings.createCallSiteDefault
+            );
+        }
+        if (oldParameterNames.equals(newParameterNames)) {
+            super.applyPlan(project, file, targetClass, plan);
+            return;
+        }
+
+        ProgressManager.getInstance().run(new AutoValueCreateCallSiteUpdater(
+                project,
+                COMMAND_NAME,
+                oldCreateMethod,
+                plan,
+                matchArguments(oldParameters, properties),
+                newParameterNames,
+                newParameterDefaults
+        ));
+    }
+
+    // old argument index for every new parameter, -1 for a new one; arguments are matched by name first,
+    // an argument left over at the same position and of the same type is taken for a renamed property
+    @NotNull
+    private static List<Integer> matchArguments(
+            @NotNull PsiParameter[] oldParameters,
+            @NotNull List<AutoValueProperty> properties
+    ) {
+        final List<Integer> argumentIndices = new ArrayList<>(properties.size());
+        final Set<Integer> matchedIndices = new HashSet<>();
+        for (AutoValueProperty property : properties) {
+            int oldIndex = -1;
+            for (int i = 0; i < oldParameters.length; i++) {
+                if (oldParameters[i].getName().equals(property.getName())) {
+                    oldIndex = i;
+                    matchedIndices.add(i);
+                    break;
+                }
+            }
+            argumentIndices.add(oldIndex);
+        }
+        for (int i = 0; i < properties.size() && i < oldParameters.length; i++) {
+            if (argumentIndices.get(i) < 0
+                    && !matchedIndices.contains(i)
+                    && oldParameters[i].getType().getCanonicalText().equals(properties.get(i).getType().getCanonicalText())) {
+                argumentIndices.set(i, i);
+                matchedIndices.add(i);
+            }
+        }
+        return argumentIndices;
+    }
+
+    @NotNull
+    private static List<PsiMethod> findCreateMethods(@NotNull PsiClass targetClass) {
+        final List<PsiMethod> createMethods = new ArrayList<>();
+        for (PsiMethod method : targetClass.findMethodsByName(CREATE_METHOD_NAME, false)) {
+            if (method.hasModifierProperty(PsiModifier.STATIC)) {
+                createMethods.add(method);
+            }
+        }
+        return createMethods;
+    }
+
+    @NotNull
+    @Override
+    protected AutoValueMemberPlan createPlan(
+            @NotNull Project project,
+            @NotNull PsiClass targetClass,
+            @NotNull List<AutoValueProperty> properties
     ) {
-        AutoValueCreateGenerator.generate(project, editor, file, existingFields);
+        return AutoValueCreateGenerator.createPlan(project, targetClass, properties);
     }
 }
@@ -0,0 +1,61 @@
+package org.jetbrains.plugins.autovaluehelper.creator;
+
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiModifier;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.plugins.autovaluehelper.AutoValueBaseHelperHandler;
+import org.jetbrains.plugins.autovaluehelper.AutoValueBaseInspection;
+import org.jetbrains.plugins.autovaluehelper.AutoValuePropertyModel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class AutoValueCreateInspection extends AutoValueBaseInspection {
+
+    private static final String CREATE_METHOD_NAME = "create";
+
+    @Nullable
+    @Override
+    protected String findProblem(@NotNull PsiClass targetClass, @NotNull AutoValuePropertyModel model) {
+        final List<PsiMethod> createMethods = new ArrayList<>();
+        for (PsiMethod method : targetClass.findMethodsByName(CREATE_METHOD_NAME, false)) {
+            if (method.hasModifierProperty(PsiModifier.STATIC)) {
+                createMethods.add(method);
+            }
+        }
+        if (createMethods.isEmpty()) {
+            return null;
+        }
+
+        // arguments are passed to the generated constructor by position, so only types and order matter
+        final List<String> propertyTypes = new ArrayList<>(model.getFingerprint().values());
+        for (PsiMethod method : createMethods) {
+            if (getParameterTypes(method).equals(propertyTypes)) {
+                return null;
+            }
+        }
+
+        final int parameterCount = getParameterTypes(createMethods.get(0)).size();
+        if (parameterCount < propertyTypes.size()) {
+            return "create() is out of sync: " + (propertyTypes.size() - parameterCount) + " parameter(s) missing";
+        }
+        if (parameterCount > propertyTypes.size()) {
+            return "create() is out of sync: " + (parameterCount - propertyTypes.size()) + " parameter(s) without property";
+        }
+        return "create() is out of sync: parameter types do not match properties";
+    }
+
+    @NotNull
+    @Override
+    protected String getFixName() {
+        return "Regenerate create()";
+    }
+
+    @NotNull
+    @Override
+    protected AutoValueBaseHelperHandler getHandler() {
+        return AutoValueCreateHandler.getInstance();
+    }
+}
@@ -0,0 +1,156 @@
+package org.jetbrains.plugins.autovaluehelper.footprint;
+
+import com.intellij.psi.*;
+import com.intellij.psi.util.PsiUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.plugins.autovaluehelper.AutoValueProperty;
+
+import java.util.*;
+
+// shallow size of the generated AutoValue_ class on a 64-bit HotSpot JVM with compressed oops
+public class AutoValueFootprint {
+
+    private static final int OBJECT_HEADER = 12;
+    private static final int REFERENCE = 4;
+    private static final int ALIGNMENT = 8;
+
+    private static final Set<String> OPTIONALS = new HashSet<>(Arrays.asList(
+            CommonClassNames.JAVA_UTIL_OPTIONAL,
+            "com.google.common.base.Optional",
+            "java.util.OptionalInt",
+            "java.util.OptionalLong",
+            "java.util.OptionalDouble"
+    ));
+
+    // boxes and optionals by size of the object they allocate, Long and Double need 12 + 8 bytes rounded up to 24
+    private static final Map<String, Integer> WRAPPER_SIZES = new HashMap<>();
+
+    static {
+        WRAPPER_SIZES.put(CommonClassNames.JAVA_LANG_BOOLEAN, 16);
+        WRAPPER_SIZES.put(CommonClassNames.JAVA_LANG_BYTE, 16);
+        WRAPPER_SIZES.put(CommonClassNames.JAVA_LANG_SHORT, 16);
+        WRAPPER_SIZES.put(CommonClassNames.JAVA_LANG_CHARACTER, 16);
+        WRAPPER_SIZES.put(CommonClassNames.JAVA_LANG_INTEGER, 16);
+        WRAPPER_SIZES.put(CommonClassNames.JAVA_LANG_FLOAT, 16);
+        WRAPPER_SIZES.put(CommonClassNames.JAVA_LANG_LONG, 24);
+        WRAPPER_SIZES.put(CommonClassNames.JAVA_LANG_DOUBLE, 24);
+        WRAPPER_SIZES.put(CommonClassNames.JAVA_UTIL_OPTIONAL, 16);
+        WRAPPER_SIZES.put("com.google.common.base.Optional", 16);
+        WRAPPER_SIZES.put("java.util.OptionalInt", 24);
+        WRAPPER_SIZES.put("java.util.OptionalLong", 24);
+        WRAPPER_SIZES.put("java.util.OptionalDouble", 24);
+    }
+
+    private final int instanceSize;
+    private final int padding;
+    @NotNull
+    private final List<AutoValueProperty> boxedProperties;
+    @NotNull
+    private final List<AutoValueProperty> optionalProperties;
+
+    private AutoValueFootprint(
+            int instanceSize,
+            int padding,
+            @NotNull List<AutoValueProperty> boxedProperties,
+            @NotNull List<AutoValueProperty> optionalProperties
+    ) {
+        this.instanceSize = instanceSize;
+        this.padding = padding;
+        this.boxedProperties = boxedProperties;
+        this.optionalProperties = optionalProperties;
+    }
+
+    @NotNull
+    public static AutoValueFootprint of(@NotNull List<AutoValueProperty> properties) {
+        // HotSpot groups fields by size, declaration order doesn't matter
+        final int[] fieldCounts = new int[ALIGNMENT + 1];
+        final List<AutoValueProperty> boxedProperties = new ArrayList<>();
+        final List<AutoValueProperty> optionalProperties = new ArrayList<>();
+        int fieldsSize = 0;
+        for (AutoValueProperty property : properties) {
+            final int fieldSize = getFieldSize(property.getType());
+            fieldCounts[fieldSize]++;
+            fieldsSize += fieldSize;
+            if (PsiPrimitiveType.getUnboxedType(property.getType()) != null
+                    && property.getNullability() != AutoValueProperty.Nullability.NULLABLE) {
+                boxedProperties.add(property);
+            } else if (isOptional(property.getType())) {
+                optionalProperties.add(property);
+            }
+        }
+
+        int offset = OBJECT_HEADER;
+        if (fieldCounts[8] > 0 && offset % 8 != 0) {
+            // the gap after the header is filled with smaller fields, ints and references first
+            int gap = 8 - offset % 8;
+            for (int size = 4; size >= 1; size /= 2) {
+                while (gap >= size && fieldCounts[size] > 0) {
+                    fieldCounts[size]--;
+                    gap -= size;
+                    offset += size;
+                }
+            }
+            offset = align(offset, 8);
+        }
+        for (int size = 8; size >= 1; size /= 2) {
+            offset = align(offset, size) + size * fieldCounts[size];
+        }
+        final int instanceSize = align(offset, ALIGNMENT);
+        return new AutoValueFootprint(
+                instanceSize,
+                instanceSize - OBJECT_HEADER - fieldsSize,
+                boxedProperties,
+                optionalProperties
+        );
+    }
+
+    // estimated bytes per instance, without the objects the properties point to
+    public int getInstanceSize() {
+        return instanceSize;
+    }
+
+    public int getPadding() {
+        return padding;
+    }
+
+    // non-null boxed numbers, that could be primitive
+    @NotNull
+    public List<AutoValueProperty> getBoxedProperties() {
+        return boxedProperties;
+    }
+
+    @NotNull
+    public List<AutoValueProperty> getOptionalProperties() {
+        return optionalProperties;
+    }
+
+    // size of the object a boxed or optional value allocates, null for other types
+    @Nullable
+    public static Integer getWrapperSize(@NotNull PsiType type) {
+        final PsiClass typeClass = PsiUtil.resolveClassInType(type);
+        return typeClass == null ? null : WRAPPER_SIZES.get(typeClass.getQualifiedName());
+    }
+
+    public static int getFieldSize(@NotNull PsiType type) {
+        if (PsiType.LONG.equals(type) || PsiType.DOUBLE.equals(type)) {
+            return 8;
+        } else if (PsiType.INT.equals(type) || PsiType.FLOAT.equals(type)) {
+            return 4;
+        } else if (PsiType.SHORT.equals(type) || PsiType.CHAR.equals(type)) {
+            return 2;
+        } else if (PsiType.BYTE.equals(type) || PsiType.BOOLEAN.equals(type)) {
+            return 1;
+        }
+        return REFERENCE;
+    }
+
+    private static boolean isOptional(@NotNull PsiType type) {
+        final PsiClass typeClass = PsiUtil.resolveClassInType(type);
+        return typeClass != null && OPTIONALS.contains(typeClass.getQualifiedName());
+    }
+
+    private static int align(int offset, int alignment) {
+        return (offset + alignment - 1) / alignment * alignment;
+    }
+}
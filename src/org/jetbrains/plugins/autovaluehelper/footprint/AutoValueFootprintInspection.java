@@ -0,0 +1,85 @@
+package org.jetbrains.plugins.autovaluehelper.footprint;
+
+import com.intellij.codeInspection.AbstractBaseJavaLocalInspectionTool;
+import com.intellij.codeInspection.InspectionManager;
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.ProblemHighlightType;
+import com.intellij.psi.*;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.plugins.autovaluehelper.AutoValueProperty;
+import org.jetbrains.plugins.autovaluehelper.AutoValuePropertyModel;
+import org.jetbrains.plugins.autovaluehelper.AutoValueUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class AutoValueFootprintInspection extends AbstractBaseJavaLocalInspectionTool {
+
+    @Nullable
+    @Override
+    public ProblemDescriptor[] checkClass(
+            @NotNull PsiClass aClass,
+            @NotNull InspectionManager manager,
+            boolean isOnTheFly
+    ) {
+        if (aClass.getNameIdentifier() == null || !AutoValueUtils.isAutoValueClass(aClass)) {
+            return null;
+        }
+        final AutoValuePropertyModel model = AutoValuePropertyModel.getInstance(aClass);
+        if (model.isEmpty()) {
+            return null;
+        }
+
+        final AutoValueFootprint footprint = AutoValueFootprint.of(model.getProperties());
+        final List<ProblemDescriptor> problems = new ArrayList<>();
+        for (AutoValueProperty property : footprint.getBoxedProperties()) {
+            final PsiPrimitiveType primitiveType = PsiPrimitiveType.getUnboxedType(property.getType());
+            assert primitiveType != null;
+            addPropertyProblem(problems, aClass, property, manager, isOnTheFly, String.format(
+                    "%s() takes a %d-byte reference and up to a %d-byte %s per instance, %s would take %d bytes",
+                    property.getName(),
+                    AutoValueFootprint.getFieldSize(property.getType()),
+                    AutoValueFootprint.getWrapperSize(property.getType()),
+                    property.getType().getPresentableText(),
+                    primitiveType.getCanonicalText(),
+                    AutoValueFootprint.getFieldSize(primitiveType)
+            ));
+        }
+        for (AutoValueProperty property : footprint.getOptionalProperties()) {
+            addPropertyProblem(problems, aClass, property, manager, isOnTheFly, String.format(
+                    "%s() allocates a %d-byte %s for every present value, a @Nullable property would not",
+                    property.getName(),
+                    AutoValueFootprint.getWrapperSize(property.getType()),
+                    property.getType().getPresentableText()
+            ));
+        }
+        // alignment padding alone is not reported: HotSpot orders the fields itself, so reordering getters changes nothing
+        return problems.isEmpty() ? null : problems.toArray(ProblemDescriptor.EMPTY_ARRAY);
+    }
+
+    // inherited getters count toward the footprint, but can only be highlighted where they are declared
+    private static void addPropertyProblem(
+            @NotNull List<ProblemDescriptor> problems,
+            @NotNull PsiClass aClass,
+            @NotNull AutoValueProperty property,
+            @NotNull InspectionManager manager,
+            boolean isOnTheFly,
+            @NotNull String description
+    ) {
+        final PsiMethod getter = property.getGetter();
+        final PsiTypeElement returnTypeElement = getter.getReturnTypeElement();
+        if (returnTypeElement == null || !PsiTreeUtil.isAncestor(aClass, getter, true)) {
+            return;
+        }
+        problems.add(manager.createProblemDescriptor(
+                returnTypeElement,
+                description,
+                (LocalQuickFix) null,
+                ProblemHighlightType.GENERIC_ERROR_OR_WARNING,
+                isOnTheFly
+        ));
+    }
+}
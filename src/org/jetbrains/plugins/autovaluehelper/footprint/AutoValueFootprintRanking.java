@@ -0,0 +1,104 @@
+package org.jetbrains.plugins.autovaluehelper.footprint;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.SmartPsiElementPointer;
+import com.intellij.util.messages.Topic;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// last ranking of @AutoValue classes by estimated footprint, shown in the tool window
+@Service
+public final class AutoValueFootprintRanking {
+
+    public static final Topic<Listener> TOPIC = Topic.create("AutoValue footprint ranking", Listener.class);
+
+    public interface Listener {
+        void rankingUpdated(@NotNull List<Entry> entries);
+    }
+
+    public static class Entry {
+        @NotNull
+        private final SmartPsiElementPointer<PsiClass> pointer;
+        @NotNull
+        private final String className;
+        private final int propertyCount;
+        @NotNull
+        private final AutoValueFootprint footprint;
+
+        Entry(
+                @NotNull SmartPsiElementPointer<PsiClass> pointer,
+                @NotNull String className,
+                int propertyCount,
+                @NotNull AutoValueFootprint footprint
+        ) {
+            this.pointer = pointer;
+            this.className = className;
+            this.propertyCount = propertyCount;
+            this.footprint = footprint;
+        }
+
+        @NotNull
+        public SmartPsiElementPointer<PsiClass> getPointer() {
+            return pointer;
+        }
+
+        @NotNull
+        public String getClassName() {
+            return className;
+        }
+
+        public int getPropertyCount() {
+            return propertyCount;
+        }
+
+        public int getInstanceSize() {
+            return footprint.getInstanceSize();
+        }
+
+        public int getPadding() {
+            return footprint.getPadding();
+        }
+
+        public int getBoxedCount() {
+            return footprint.getBoxedProperties().size();
+        }
+
+        public int getOptionalCount() {
+            return footprint.getOptionalProperties().size();
+        }
+    }
+
+    @NotNull
+    private final Project project;
+    @NotNull
+    private volatile List<Entry> entries = new ArrayList<>();
+
+    public AutoValueFootprintRanking(@NotNull Project project) {
+        this.project = project;
+    }
+
+    @NotNull
+    public static AutoValueFootprintRanking getInstance(@NotNull Project project) {
+        return ServiceManager.getService(project, AutoValueFootprintRanking.class);
+    }
+
+    @NotNull
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    void setEntries(@NotNull final List<Entry> entries) {
+        this.entries = entries;
+        ApplicationManager.getApplication().invokeLater(() -> {
+            if (!project.isDisposed()) {
+                project.getMessageBus().syncPublisher(TOPIC).rankingUpdated(entries);
+            }
+        });
+    }
+}
@@ -0,0 +1,114 @@
+package org.jetbrains.plugins.autovaluehelper.footprint;
+
+import com.intellij.analysis.AnalysisScope;
+import com.intellij.analysis.BaseAnalysisAction;
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationType;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.wm.ToolWindow;
+import com.intellij.openapi.wm.ToolWindowManager;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.SmartPointerManager;
+import com.intellij.ui.content.Content;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.plugins.autovaluehelper.AutoValuePropertyModel;
+import org.jetbrains.plugins.autovaluehelper.AutoValueStatisticsToolWindowFactory;
+import org.jetbrains.plugins.autovaluehelper.AutoValueUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AutoValueFootprintRankingAction extends BaseAnalysisAction {
+
+    public static final String CONTENT_NAME = "Footprint";
+
+    private static final String TITLE = "Rank AutoValue Classes by Footprint";
+
+    public AutoValueFootprintRankingAction() {
+        super(TITLE, "Rank");
+    }
+
+    @Override
+    protected void analyze(@NotNull final Project project, @NotNull final AnalysisScope scope) {
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, TITLE, true) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                rank(project, scope, indicator);
+            }
+        });
+    }
+
+    private static void rank(
+            @NotNull final Project project,
+            @NotNull final AnalysisScope scope,
+            @NotNull final ProgressIndicator indicator
+    ) {
+        indicator.setIndeterminate(true);
+        indicator.setText("Searching for @AutoValue classes...");
+        final List<PsiClass> autoValueClasses = DumbService.getInstance(project).runReadActionInSmartMode(
+                () -> AutoValueUtils.findAutoValueClasses(project, scope.toSearchScope())
+        );
+        if (autoValueClasses.isEmpty()) {
+            new Notification(
+                    AutoValueUtils.NOTIFICATION_GROUP,
+                    TITLE,
+                    "No @AutoValue classes found in " + scope.getDisplayName(),
+                    NotificationType.INFORMATION
+            ).notify(project);
+            return;
+        }
+
+        // one short read action per class, like the batch regeneration
+        indicator.setIndeterminate(false);
+        indicator.setText("Estimating footprints...");
+        final SmartPointerManager pointerManager = SmartPointerManager.getInstance(project);
+        final List<AutoValueFootprintRanking.Entry> entries =
+                Collections.synchronizedList(new ArrayList<>(autoValueClasses.size()));
+        final AtomicInteger processed = new AtomicInteger();
+        JobLauncher.getInstance().invokeConcurrentlyUnderProgress(autoValueClasses, indicator, clazz -> {
+            ReadAction.run(() -> {
+                final String className = clazz.isValid() ? clazz.getQualifiedName() : null;
+                if (className == null) {
+                    return;
+                }
+                final AutoValuePropertyModel model = AutoValuePropertyModel.getInstance(clazz);
+                entries.add(new AutoValueFootprintRanking.Entry(
+                        pointerManager.createSmartPsiElementPointer(clazz),
+                        className,
+                        model.getProperties().size(),
+                        AutoValueFootprint.of(model.getProperties())
+                ));
+            });
+            indicator.setFraction((double) processed.incrementAndGet() / autoValueClasses.size());
+            return true;
+        });
+
+        final List<AutoValueFootprintRanking.Entry> ranking = new ArrayList<>(entries);
+        ranking.sort(Comparator.comparingInt(AutoValueFootprintRanking.Entry::getInstanceSize).reversed());
+        AutoValueFootprintRanking.getInstance(project).setEntries(ranking);
+
+        ApplicationManager.getApplication().invokeLater(() -> {
+            final ToolWindow toolWindow =
+                    ToolWindowManager.getInstance(project).getToolWindow(AutoValueStatisticsToolWindowFactory.ID);
+            if (toolWindow == null) {
+                return;
+            }
+            toolWindow.activate(() -> {
+                final Content content = toolWindow.getContentManager().findContent(CONTENT_NAME);
+                if (content != null) {
+                    toolWindow.getContentManager().setSelectedContent(content);
+                }
+            });
+        }, project.getDisposed());
+    }
+}
@@ -0,0 +1,10 @@
+package org.jetbrains.plugins.autovaluehelper.memoized;
+
+import org.jetbrains.plugins.autovaluehelper.AutoValueBaseHelperAction;
+
+public class AutoValueMemoizedAction extends AutoValueBaseHelperAction {
+
+    public AutoValueMemoizedAction() {
+        super(AutoValueMemoizedHandler::getInstance);
+    }
+}
@@ -0,0 +1,142 @@
+package org.jetbrains.plugins.autovaluehelper.memoized;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.plugins.autovaluehelper.AutoValueBaseHelperGenerator;
+import org.jetbrains.plugins.autovaluehelper.AutoValueMemberPlan;
+import org.jetbrains.plugins.autovaluehelper.AutoValueProperty;
+
+import java.util.*;
+
+class AutoValueMemoizedGenerator extends AutoValueBaseHelperGenerator {
+
+    private static final String MEMOIZED = "com.google.auto.value.extension.memoized.Memoized";
+    private static final List<String> OBJECT_METHODS = Arrays.asList("hashCode", "toString");
+
+    // names of methods that should be memoized, null leaves the class as it is
+    @Nullable
+    private final Set<String> memoizedMethods;
+
+    @NotNull
+    static AutoValueMemberPlan createPlan(@NotNull final Project project,
+                                          @NotNull final PsiClass targetClass,
+                                          @NotNull final List<AutoValueProperty> properties,
+                                          @Nullable final Set<String> memoizedMethods
+    ) {
+        return new AutoValueMemoizedGenerator(project, targetClass, properties, memoizedMethods).buildPlan();
+    }
+
+    private AutoValueMemoizedGenerator(
+            @NotNull final Project project,
+            @NotNull final PsiClass targetClass,
+            @NotNull final List<AutoValueProperty> properties,
+            @Nullable final Set<String> memoizedMethods
+    ) {
+        super(properties, project, targetClass);
+        this.memoizedMethods = memoizedMethods;
+    }
+
+    static boolean isMemoized(@NotNull PsiMethod method) {
+        return method.getModifierList().findAnnotation(MEMOIZED) != null;
+    }
+
+    // derived methods without parameters, plus hashCode() and toString() unless they are written by hand
+    @NotNull
+    static List<PsiMethod> findCandidates(@NotNull PsiClass targetClass) {
+        final List<PsiMethod> candidates = new ArrayList<>();
+        for (PsiMethod method : targetClass.getMethods()) {
+            if (method.isConstructor()
+                    || OBJECT_METHODS.contains(method.getName())
+                    || method.hasModifierProperty(PsiModifier.ABSTRACT)
+                    || method.hasModifierProperty(PsiModifier.STATIC)
+                    || method.hasModifierProperty(PsiModifier.PRIVATE)
+                    || method.hasModifierProperty(PsiModifier.FINAL)
+                    || method.getParameterList().getParametersCount() > 0
+                    || method.getReturnType() == null
+                    || PsiType.VOID.equals(method.getReturnType())) {
+                continue;
+            }
+            candidates.add(method);
+        }
+
+        final PsiClass objectClass = JavaPsiFacade.getInstance(targetClass.getProject())
+                .findClass(CommonClassNames.JAVA_LANG_OBJECT, targetClass.getResolveScope());
+        for (String objectMethodName : OBJECT_METHODS) {
+            final PsiMethod declared = findMethodWithoutParameters(targetClass, objectMethodName);
+            if (declared != null) {
+                // AutoValue can only memoize an abstract declaration
+                if (declared.hasModifierProperty(PsiModifier.ABSTRACT)) {
+                    candidates.add(declared);
+                }
+            } else if (objectClass != null) {
+                final PsiMethod inherited = findMethodWithoutParameters(objectClass, objectMethodName);
+                if (inherited != null) {
+                    candidates.add(inherited);
+                }
+            }
+        }
+        return candidates;
+    }
+
+    @NotNull
+    @Override
+    protected String getGeneratorName() {
+        return "@Memoized";
+    }
+
+    @Override
+    protected void fillPlan(@NotNull AutoValueMemberPlan plan) {
+        if (memoizedMethods == null) {
+            return;
+        }
+
+        final List<PsiMethod> newMethods = new ArrayList<>();
+        for (PsiMethod candidate : findCandidates(targetClass)) {
+            final boolean memoize = memoizedMethods.contains(candidate.getName());
+            final boolean declared = targetClass.getManager().areElementsEquivalent(candidate.getContainingClass(), targetClass);
+            if (OBJECT_METHODS.contains(candidate.getName())) {
+                // abstract hashCode() and toString() only exist to carry the annotation
+                if (memoize) {
+                    newMethods.add(psiElementFactory.createMethodFromText(renderObjectMethod(candidate), targetClass));
+                } else if (declared && isMemoized(candidate)) {
+                    plan.deleteMethod(candidate);
+                }
+            } else if (memoize && !isMemoized(candidate)) {
+                plan.addAnnotation(
+                        candidate.getModifierList(),
+                        psiElementFactory.createAnnotationFromText("@" + MEMOIZED, targetClass)
+                );
+            } else if (!memoize && isMemoized(candidate)) {
+                final PsiAnnotation annotation = candidate.getModifierList().findAnnotation(MEMOIZED);
+                assert annotation != null;
+                plan.deleteAnnotation(annotation);
+            }
+        }
+        plan.syncMethods(targetClass, newMethods, null);
+    }
+
+    @NotNull
+    private String renderObjectMethod(@NotNull PsiMethod objectMethod) {
+        final PsiType returnType = objectMethod.getReturnType();
+        assert returnType != null;
+        return String.format(
+                "@%s @%s public abstract %s %s();",
+                MEMOIZED,
+                CommonClassNames.JAVA_LANG_OVERRIDE,
+                returnType.getCanonicalText(),
+                objectMethod.getName()
+        );
+    }
+
+    @Nullable
+    private static PsiMethod findMethodWithoutParameters(@NotNull PsiClass psiClass, @NotNull String name) {
+        for (PsiMethod method : psiClass.findMethodsByName(name, false)) {
+            if (method.getParameterList().getParametersCount() == 0) {
+                return method;
+            }
+        }
+        return null;
+    }
+}
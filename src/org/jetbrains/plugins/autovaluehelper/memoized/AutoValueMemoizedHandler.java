@@ -0,0 +1,153 @@
+package org.jetbrains.plugins.autovaluehelper.memoized;
+
+import com.intellij.codeInsight.generation.PsiMethodMember;
+import com.intellij.codeInsight.hint.HintManager;
+import com.intellij.ide.util.MemberChooser;
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationType;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiMethod;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.plugins.autovaluehelper.AutoValueBaseHelperHandler;
+import org.jetbrains.plugins.autovaluehelper.AutoValueMemberPlan;
+import org.jetbrains.plugins.autovaluehelper.AutoValueProperty;
+import org.jetbrains.plugins.autovaluehelper.AutoValuePropertyModel;
+import org.jetbrains.plugins.autovaluehelper.AutoValueUtils;
+
+import java.util.*;
+
+@Service
+public final class AutoValueMemoizedHandler extends AutoValueBaseHelperHandler {
+
+    private static class MemoizedChoices {
+        @NotNull
+        private final PsiMethodMember[] members;
+        @NotNull
+        private final List<PsiMethodMember> memoizedMembers;
+        // getters collected as properties although they are @Memoized
+        @NotNull
+        private final List<String> memoizedProperties;
+
+        private MemoizedChoices(
+                @NotNull PsiMethodMember[] members,
+                @NotNull List<PsiMethodMember> memoizedMembers,
+                @NotNull List<String> memoizedProperties
+        ) {
+            this.members = members;
+            this.memoizedMembers = memoizedMembers;
+            this.memoizedProperties = memoizedProperties;
+        }
+    }
+
+    // names of methods chosen to be memoized, null leaves the class as it is
+    @Nullable
+    private final Set<String> memoizedMethods;
+
+    @NotNull
+    public static AutoValueMemoizedHandler getInstance() {
+        return ServiceManager.getService(AutoValueMemoizedHandler.class);
+    }
+
+    private AutoValueMemoizedHandler() {
+        this(null);
+    }
+
+    private AutoValueMemoizedHandler(@Nullable Set<String> memoizedMethods) {
+        this.memoizedMethods = memoizedMethods;
+    }
+
+    @Override
+    public void invoke(@NotNull Project project, @NotNull Editor editor, @NotNull PsiFile file) {
+        if (memoizedMethods != null) {
+            super.invoke(project, editor, file);
+            return;
+        }
+
+        scheduleChooser(project, editor, file, AutoValueMemoizedHandler::collectMemoizedChoices, choices -> {
+            warnAboutMemoizedProperties(project, choices.memoizedProperties);
+            if (choices.members.length == 0) {
+                HintManager.getInstance().showErrorHint(editor, "No methods that can be memoized");
+                return;
+            }
+
+            final MemberChooser<PsiMethodMember> chooser = new MemberChooser<>(choices.members, true, true, project);
+            chooser.setTitle("Select Methods to Memoize");
+            chooser.setCopyJavadocVisible(false);
+            chooser.selectElements(choices.memoizedMembers.toArray(new PsiMethodMember[0]));
+            if (!chooser.showAndGet()) {
+                return;
+            }
+
+            final Set<String> selectedMethods = new HashSet<>();
+            final List<PsiMethodMember> selectedMembers = chooser.getSelectedElements();
+            if (selectedMembers != null) {
+                for (PsiMethodMember member : selectedMembers) {
+                    selectedMethods.add(member.getElement().getName());
+                }
+            }
+            new AutoValueMemoizedHandler(selectedMethods).invoke(project, editor, file);
+        });
+    }
+
+    @NotNull
+    private static MemoizedChoices collectMemoizedChoices(@NotNull PsiClass targetClass) {
+        final List<PsiMethod> candidates = AutoValueMemoizedGenerator.findCandidates(targetClass);
+        final PsiMethodMember[] members = new PsiMethodMember[candidates.size()];
+        final List<PsiMethodMember> memoizedMembers = new ArrayList<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            members[i] = new PsiMethodMember(candidates.get(i));
+            if (AutoValueMemoizedGenerator.isMemoized(candidates.get(i))) {
+                memoizedMembers.add(members[i]);
+            }
+        }
+
+        final List<String> memoizedProperties = new ArrayList<>();
+        for (AutoValueProperty property : AutoValuePropertyModel.getInstance(targetClass).getProperties()) {
+            if (AutoValueMemoizedGenerator.isMemoized(property.getGetter())) {
+                memoizedProperties.add(property.getName() + "()");
+            }
+        }
+        return new MemoizedChoices(members, memoizedMembers, memoizedProperties);
+    }
+
+    // an abstract @Memoized method is collected as a property, so the Builder and create() would get it too
+    private static void warnAboutMemoizedProperties(@NotNull Project project, @NotNull List<String> memoizedProperties) {
+        if (memoizedProperties.isEmpty()) {
+            return;
+        }
+        new Notification(
+                AutoValueUtils.NOTIFICATION_GROUP,
+                "AutoValue @Memoized",
+                "Abstract @Memoized methods are treated as properties: " + StringUtil.join(memoizedProperties, ", ")
+                        + ". Give them a body to memoize them.",
+                NotificationType.WARNING
+        ).notify(project);
+    }
+
+    @Override
+    protected boolean hasGeneratedMembers(@NotNull PsiClass targetClass) {
+        for (PsiMethod method : targetClass.getMethods()) {
+            if (AutoValueMemoizedGenerator.isMemoized(method)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @NotNull
+    @Override
+    protected AutoValueMemberPlan createPlan(
+            @NotNull Project project,
+            @NotNull PsiClass targetClass,
+            @NotNull List<AutoValueProperty> properties
+    ) {
+        return AutoValueMemoizedGenerator.createPlan(project, targetClass, properties, memoizedMethods);
+    }
+}
@@ -0,0 +1,10 @@
+package org.jetbrains.plugins.autovaluehelper.serialization;
+
+import org.jetbrains.plugins.autovaluehelper.AutoValueBaseHelperAction;
+
+public class AutoValueSerializationAction extends AutoValueBaseHelperAction {
+
+    public AutoValueSerializationAction() {
+        super(AutoValueSerializationHandler::getInstance);
+    }
+}
@@ -0,0 +1,50 @@
+package org.jetbrains.plugins.autovaluehelper.serialization;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.ui.components.JBCheckBox;
+import com.intellij.util.ui.FormBuilder;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+class AutoValueSerializationDialog extends DialogWrapper {
+
+    private final Map<AutoValueSerializationGenerator.Format, JBCheckBox> checkBoxes =
+            new EnumMap<>(AutoValueSerializationGenerator.Format.class);
+
+    AutoValueSerializationDialog(@NotNull Project project, @NotNull Set<AutoValueSerializationGenerator.Format> formats) {
+        super(project);
+        for (AutoValueSerializationGenerator.Format format : AutoValueSerializationGenerator.Format.values()) {
+            checkBoxes.put(format, new JBCheckBox(format.getPresentableName(), formats.contains(format)));
+        }
+        setTitle("Select Serialization Formats");
+        init();
+    }
+
+    @NotNull
+    Set<AutoValueSerializationGenerator.Format> getSelectedFormats() {
+        final Set<AutoValueSerializationGenerator.Format> formats = EnumSet.noneOf(AutoValueSerializationGenerator.Format.class);
+        for (Map.Entry<AutoValueSerializationGenerator.Format, JBCheckBox> checkBox : checkBoxes.entrySet()) {
+            if (checkBox.getValue().isSelected()) {
+                formats.add(checkBox.getKey());
+            }
+        }
+        return formats;
+    }
+
+    @Nullable
+    @Override
+    protected JComponent createCenterPanel() {
+        final FormBuilder formBuilder = FormBuilder.createFormBuilder();
+        for (JBCheckBox checkBox : checkBoxes.values()) {
+            formBuilder.addComponent(checkBox);
+        }
+        return formBuilder.getPanel();
+    }
+}
@@ -0,0 +1,248 @@
+package org.jetbrains.plugins.autovaluehelper.serialization;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.plugins.autovaluehelper.AutoValueBaseHelperGenerator;
+import org.jetbrains.plugins.autovaluehelper.AutoValueMemberPlan;
+import org.jetbrains.plugins.autovaluehelper.AutoValueProperty;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+class AutoValueSerializationGenerator extends AutoValueBaseHelperGenerator {
+
+    enum Format {
+        GSON("Gson typeAdapter(Gson)"),
+        MOSHI("Moshi jsonAdapter(Moshi)"),
+        PARCELABLE("Android Parcelable");
+
+        @NotNull
+        private final String presentableName;
+
+        Format(@NotNull String presentableName) {
+            this.presentableName = presentableName;
+        }
+
+        @NotNull
+        String getPresentableName() {
+            return presentableName;
+        }
+    }
+
+    private static final String GSON_METHOD_NAME = "typeAdapter";
+    private static final String MOSHI_METHOD_NAME = "jsonAdapter";
+    private static final String PARCELABLE = "android.os.Parcelable";
+    private static final String SERIALIZED_NAME = "com.google.gson.annotations.SerializedName";
+    private static final String JSON = "com.squareup.moshi.Json";
+
+    // formats to support, null keeps the formats the class already supports
+    @Nullable
+    private final Set<Format> formats;
+
+    @NotNull
+    static AutoValueMemberPlan createPlan(@NotNull final Project project,
+                                          @NotNull final PsiClass targetClass,
+                                          @NotNull final List<AutoValueProperty> properties,
+                                          @Nullable final Set<Format> formats
+    ) {
+        return new AutoValueSerializationGenerator(project, targetClass, properties, formats).buildPlan();
+    }
+
+    private AutoValueSerializationGenerator(
+            @NotNull final Project project,
+            @NotNull final PsiClass targetClass,
+            @NotNull final List<AutoValueProperty> properties,
+            @Nullable final Set<Format> formats
+    ) {
+        super(properties, project, targetClass);
+        this.formats = formats;
+    }
+
+    @NotNull
+    static Set<Format> findFormats(@NotNull PsiClass targetClass) {
+        final Set<Format> formats = EnumSet.noneOf(Format.class);
+        if (!findStaticMethods(targetClass, GSON_METHOD_NAME).isEmpty()) {
+            formats.add(Format.GSON);
+        }
+        if (!findStaticMethods(targetClass, MOSHI_METHOD_NAME).isEmpty()) {
+            formats.add(Format.MOSHI);
+        }
+        if (findParcelableReference(targetClass) != null) {
+            formats.add(Format.PARCELABLE);
+        }
+        return formats;
+    }
+
+    @NotNull
+    @Override
+    protected String getGeneratorName() {
+        return "Serialization";
+    }
+
+    @Override
+    protected void fillPlan(@NotNull AutoValueMemberPlan plan) {
+        final Set<Format> targetFormats = formats != null ? formats : findFormats(targetClass);
+
+        // the extensions generate the adapters, the class only exposes them through static factories
+        final List<PsiMethod> newMethods = new ArrayList<>();
+        if (targetFormats.contains(Format.GSON)) {
+            newMethods.add(psiElementFactory.createMethodFromText(renderGsonMethod(), targetClass));
+        } else {
+            deleteMethods(plan, findStaticMethods(targetClass, GSON_METHOD_NAME));
+        }
+        if (targetFormats.contains(Format.MOSHI)) {
+            newMethods.add(psiElementFactory.createMethodFromText(renderMoshiMethod(), targetClass));
+        } else {
+            deleteMethods(plan, findStaticMethods(targetClass, MOSHI_METHOD_NAME));
+        }
+        plan.syncMethods(targetClass, newMethods, null);
+        syncJsonNames(plan, SERIALIZED_NAME, "value", targetFormats.contains(Format.GSON));
+        syncJsonNames(plan, JSON, "name", targetFormats.contains(Format.MOSHI));
+
+        // CREATOR and writeToParcel() are generated by the extension
+        final PsiJavaCodeReferenceElement parcelableReference = findParcelableReference(targetClass);
+        final PsiReferenceList implementsList = targetClass.getImplementsList();
+        if (targetFormats.contains(Format.PARCELABLE) && parcelableReference == null && implementsList != null) {
+            plan.addReference(
+                    implementsList,
+                    psiElementFactory.createReferenceElementByFQClassName(PARCELABLE, targetClass.getResolveScope())
+            );
+        } else if (!targetFormats.contains(Format.PARCELABLE) && parcelableReference != null) {
+            plan.deleteReference(parcelableReference);
+        }
+    }
+
+    // the extensions take JSON keys from the property names, which lose or gain the get/is prefix whenever a getter
+    // without a prefix is added or removed, so prefixed getters get their current key pinned; keys written by hand are kept
+    // and a pinned key is only removed with the format if it still is the generated one
+    private void syncJsonNames(
+            @NotNull AutoValueMemberPlan plan,
+            @NotNull String annotationName,
+            @NotNull String attributeName,
+            boolean pin
+    ) {
+        for (AutoValueProperty property : properties) {
+            if (property.getPropertyName().equals(property.getName())) {
+                continue;
+            }
+            final PsiModifierList modifierList = property.getGetter().getModifierList();
+            final PsiAnnotation existing = modifierList.findAnnotation(annotationName);
+            final String key = StringUtil.wrapWithDoubleQuote(property.getAutoValueName());
+            if (pin && existing == null) {
+                plan.addAnnotation(modifierList, psiElementFactory.createAnnotationFromText(
+                        "@" + annotationName + "(" + attributeName + " = " + key + ")",
+                        targetClass
+                ));
+            } else if (!pin && existing != null && isGeneratedJsonName(existing, attributeName, key)) {
+                plan.deleteAnnotation(existing);
+            }
+        }
+    }
+
+    private static boolean isGeneratedJsonName(
+            @NotNull PsiAnnotation annotation,
+            @NotNull String attributeName,
+            @NotNull String key
+    ) {
+        final PsiNameValuePair[] attributes = annotation.getParameterList().getAttributes();
+        final PsiAnnotationMemberValue value = annotation.findDeclaredAttributeValue(attributeName);
+        return attributes.length == 1 && value != null && key.equals(value.getText());
+    }
+
+    @NotNull
+    private String renderGsonMethod() {
+        final String type = psiElementFactory.createType(targetClass).getCanonicalText();
+        if (targetClass.hasTypeParameters()) {
+            return String.format(
+                    "@%s %sstatic %s com.google.gson.TypeAdapter<%s> %s(com.google.gson.Gson gson, "
+                            + "com.google.gson.reflect.TypeToken<? extends %s> typeToken) {\n"
+                            + "return new %s.GsonTypeAdapter<>(gson, typeToken);\n}",
+                    NONNULL,
+                    renderSameVisibility(targetClass),
+                    renderTypeParameters(),
+                    type,
+                    GSON_METHOD_NAME,
+                    type,
+                    getAutoValueClassName(targetClass)
+            );
+        }
+        return String.format(
+                "@%s %sstatic com.google.gson.TypeAdapter<%s> %s(com.google.gson.Gson gson) {\n"
+                        + "return new %s.GsonTypeAdapter(gson);\n}",
+                NONNULL,
+                renderSameVisibility(targetClass),
+                type,
+                GSON_METHOD_NAME,
+                getAutoValueClassName(targetClass)
+        );
+    }
+
+    @NotNull
+    private String renderMoshiMethod() {
+        final String type = psiElementFactory.createType(targetClass).getCanonicalText();
+        if (targetClass.hasTypeParameters()) {
+            return String.format(
+                    "@%s %sstatic %s com.squareup.moshi.JsonAdapter<%s> %s(com.squareup.moshi.Moshi moshi, "
+                            + "java.lang.reflect.Type[] types) {\n"
+                            + "return new %s.MoshiJsonAdapter<>(moshi, types);\n}",
+                    NONNULL,
+                    renderSameVisibility(targetClass),
+                    renderTypeParameters(),
+                    type,
+                    MOSHI_METHOD_NAME,
+                    getAutoValueClassName(targetClass)
+            );
+        }
+        return String.format(
+                "@%s %sstatic com.squareup.moshi.JsonAdapter<%s> %s(com.squareup.moshi.Moshi moshi) {\n"
+                        + "return new %s.MoshiJsonAdapter(moshi);\n}",
+                NONNULL,
+                renderSameVisibility(targetClass),
+                type,
+                MOSHI_METHOD_NAME,
+                getAutoValueClassName(targetClass)
+        );
+    }
+
+    @NotNull
+    private String renderTypeParameters() {
+        final PsiTypeParameterList typeParameterList = targetClass.getTypeParameterList();
+        return typeParameterList == null ? "" : typeParameterList.getText();
+    }
+
+    private static void deleteMethods(@NotNull AutoValueMemberPlan plan, @NotNull List<PsiMethod> methods) {
+        for (PsiMethod method : methods) {
+            plan.deleteMethod(method);
+        }
+    }
+
+    @NotNull
+    private static List<PsiMethod> findStaticMethods(@NotNull PsiClass targetClass, @NotNull String name) {
+        final List<PsiMethod> methods = new ArrayList<>();
+        for (PsiMethod method : targetClass.findMethodsByName(name, false)) {
+            if (method.hasModifierProperty(PsiModifier.STATIC)) {
+                methods.add(method);
+            }
+        }
+        return methods;
+    }
+
+    @Nullable
+    private static PsiJavaCodeReferenceElement findParcelableReference(@NotNull PsiClass targetClass) {
+        final PsiReferenceList implementsList = targetClass.getImplementsList();
+        if (implementsList == null) {
+            return null;
+        }
+        for (PsiJavaCodeReferenceElement reference : implementsList.getReferenceElements()) {
+            if (PARCELABLE.equals(reference.getQualifiedName()) || "Parcelable".equals(reference.getReferenceName())) {
+                return reference;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,68 @@
+package org.jetbrains.plugins.autovaluehelper.serialization;
+
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.plugins.autovaluehelper.AutoValueBaseHelperHandler;
+import org.jetbrains.plugins.autovaluehelper.AutoValueMemberPlan;
+import org.jetbrains.plugins.autovaluehelper.AutoValueProperty;
+
+import java.util.List;
+import java.util.Set;
+
+@Service
+public final class AutoValueSerializationHandler extends AutoValueBaseHelperHandler {
+
+    // formats chosen in the dialog, null keeps the formats the class already supports
+    @Nullable
+    private final Set<AutoValueSerializationGenerator.Format> formats;
+
+    @NotNull
+    public static AutoValueSerializationHandler getInstance() {
+        return ServiceManager.getService(AutoValueSerializationHandler.class);
+    }
+
+    private AutoValueSerializationHandler() {
+        this(null);
+    }
+
+    private AutoValueSerializationHandler(@Nullable Set<AutoValueSerializationGenerator.Format> formats) {
+        this.formats = formats;
+    }
+
+    @Override
+    public void invoke(@NotNull Project project, @NotNull Editor editor, @NotNull PsiFile file) {
+        if (formats != null) {
+            super.invoke(project, editor, file);
+            return;
+        }
+
+        scheduleChooser(project, editor, file, AutoValueSerializationGenerator::findFormats, currentFormats -> {
+            final AutoValueSerializationDialog dialog = new AutoValueSerializationDialog(project, currentFormats);
+            if (!dialog.showAndGet()) {
+                return;
+            }
+            new AutoValueSerializationHandler(dialog.getSelectedFormats()).invoke(project, editor, file);
+        });
+    }
+
+    @Override
+    protected boolean hasGeneratedMembers(@NotNull PsiClass targetClass) {
+        return !AutoValueSerializationGenerator.findFormats(targetClass).isEmpty();
+    }
+
+    @NotNull
+    @Override
+    protected AutoValueMemberPlan createPlan(
+            @NotNull Project project,
+            @NotNull PsiClass targetClass,
+            @NotNull List<AutoValueProperty> properties
+    ) {
+        return AutoValueSerializationGenerator.createPlan(project, targetClass, properties, formats);
+    }
+}
@@ -0,0 +1,99 @@
+package org.jetbrains.plugins.autovaluehelper;
+
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.List;
+
+public abstract class AutoValueGeneratorPerformanceTestCase extends LightJavaCodeInsightFixtureTestCase {
+
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final int ITERATIONS = Integer.getInteger("autovaluehelper.performance.iterations", 20);
+
+    private PerformanceBaselines baselines;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        myFixture.addClass("package com.google.auto.value; public @interface AutoValue { @interface Builder {} }");
+        myFixture.addClass("package android.support.annotation; public @interface NonNull {}");
+        myFixture.addClass("package android.support.annotation; public @interface Nullable {}");
+        baselines = new PerformanceBaselines();
+    }
+
+    @NotNull
+    protected abstract String getGeneratorName();
+
+    @NotNull
+    protected abstract AutoValueMemberPlan createPlan(@NotNull PsiClass targetClass, @NotNull List<AutoValueProperty> properties);
+
+    public void testProperties10() throws IOException {
+        runScenario("properties10", AutoValueSamples.valueClass(10, 0));
+    }
+
+    public void testProperties100() throws IOException {
+        runScenario("properties100", AutoValueSamples.valueClass(100, 0));
+    }
+
+    public void testProperties1000() throws IOException {
+        runScenario("properties1000", AutoValueSamples.valueClass(1000, 0));
+    }
+
+    public void testDepth1() throws IOException {
+        runScenario("depth1", AutoValueSamples.valueClass(100, 1));
+    }
+
+    public void testDepth5() throws IOException {
+        runScenario("depth5", AutoValueSamples.valueClass(100, 5));
+    }
+
+    public void testDepth10() throws IOException {
+        runScenario("depth10", AutoValueSamples.valueClass(100, 10));
+    }
+
+    public void testDepth20() throws IOException {
+        runScenario("depth20", AutoValueSamples.valueClass(100, 20));
+    }
+
+    public void testDiamond() throws IOException {
+        runScenario("diamond", AutoValueSamples.diamondValueClass(5, 10));
+    }
+
+    private void runScenario(@NotNull String scenario, @NotNull String text) throws IOException {
+        final PerformanceStatistics statistics = new PerformanceStatistics();
+        for (int i = 0; i < WARMUP_ITERATIONS + ITERATIONS; i++) {
+            myFixture.configureByText("Value.java", text);
+            final PsiClass targetClass = ((PsiJavaFile) myFixture.getFile()).getClasses()[0];
+            getPsiManager().dropPsiCaches();
+
+            final long start = System.nanoTime();
+            final List<AutoValueProperty> properties = AutoValueUtils.collectMethods(targetClass);
+            final long collected = System.nanoTime();
+            final AutoValueMemberPlan plan = createPlan(targetClass, properties);
+            final long planned = System.nanoTime();
+            WriteCommandAction.runWriteCommandAction(getProject(), plan);
+            final long applied = System.nanoTime();
+
+            if (i >= WARMUP_ITERATIONS) {
+                statistics.record("collect", collected - start);
+                statistics.record("plan", planned - collected);
+                statistics.record("apply", applied - planned);
+                statistics.record("total", applied - start);
+            }
+        }
+
+        for (String phase : statistics.getPhases()) {
+            final String key = getGeneratorName() + "." + scenario + "." + phase;
+            final double p50 = statistics.percentile(phase, 50);
+            final double p99 = statistics.percentile(phase, 99);
+            System.out.println(String.format("%-40s p50 %10.2f ms   p99 %10.2f ms", key, p50, p99));
+            baselines.check(key + ".p50", p50);
+            baselines.check(key + ".p99", p99);
+        }
+        assertEmpty("Generation latency regressed", baselines.getRegressions());
+    }
+}
@@ -0,0 +1,42 @@
+package org.jetbrains.plugins.autovaluehelper;
+
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+import org.jetbrains.annotations.NotNull;
+
+// generates into testData/<generator>/<test name>.java and compares the result with <test name>_after.java
+public abstract class AutoValueGeneratorTestCase extends LightJavaCodeInsightFixtureTestCase {
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        myFixture.addClass("package com.google.auto.value; public @interface AutoValue { @interface Builder {} }");
+        myFixture.addClass("package android.support.annotation; public @interface NonNull {}");
+        myFixture.addClass("package android.support.annotation; public @interface Nullable {}");
+        myFixture.addClass("package com.google.common.collect; public interface Interner<E> { E intern(E sample); }");
+        myFixture.addClass("package com.google.common.collect; public final class Interners { "
+                + "public static <E> Interner<E> newWeakInterner() { return null; } }");
+    }
+
+    @Override
+    protected String getTestDataPath() {
+        return "testData/" + getGeneratorName();
+    }
+
+    @NotNull
+    protected abstract String getGeneratorName();
+
+    @NotNull
+    protected abstract AutoValueBaseHelperHandler getHandler();
+
+    protected void doTest() {
+        myFixture.configureByFile(getTestName(false) + ".java");
+        final PsiClass targetClass = ((PsiJavaFile) myFixture.getFile()).getClasses()[0];
+        final AutoValueMemberPlan plan = getHandler().buildPlan(getProject(), targetClass);
+        assertNotNull(plan);
+        WriteCommandAction.runWriteCommandAction(getProject(), plan);
+        myFixture.checkResultByFile(getTestName(false) + "_after.java", true);
+    }
+}
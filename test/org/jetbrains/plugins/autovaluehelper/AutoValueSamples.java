@@ -0,0 +1,71 @@
+package org.jetbrains.plugins.autovaluehelper;
+
+import org.jetbrains.annotations.NotNull;
+
+public class AutoValueSamples {
+
+    private static final String[] PROPERTY_TYPES = {
+            "String", "int", "long", "java.util.List<String>", "@android.support.annotation.Nullable Integer"
+    };
+
+    // value class implementing a chain of `depth` interfaces, properties are spread evenly over the chain
+    @NotNull
+    public static String valueClass(int properties, int depth) {
+        final StringBuilder text = new StringBuilder();
+        text.append("@com.google.auto.value.AutoValue\n")
+                .append("public abstract class Value implements Level0 {\n");
+        int property = 0;
+        final int perLevel = properties / (depth + 1);
+        for (; property < properties - perLevel * depth; property++) {
+            appendGetter(text, property);
+        }
+        text.append("}\n");
+
+        for (int level = 0; level < depth; level++) {
+            text.append("interface Level").append(level);
+            if (level + 1 < depth) {
+                text.append(" extends Level").append(level + 1);
+            }
+            text.append(" {\n");
+            for (int i = 0; i < perLevel; i++, property++) {
+                appendGetter(text, property);
+            }
+            text.append("}\n");
+        }
+        if (depth == 0) {
+            text.append("interface Level0 {}\n");
+        }
+        return text.toString();
+    }
+
+    // every level has two interfaces which both extend both interfaces of the next level
+    @NotNull
+    public static String diamondValueClass(int propertiesPerInterface, int depth) {
+        final StringBuilder text = new StringBuilder();
+        text.append("@com.google.auto.value.AutoValue\n")
+                .append("public abstract class Value implements Left0, Right0 {\n")
+                .append("}\n");
+
+        int property = 0;
+        for (int level = 0; level < depth; level++) {
+            for (String side : new String[]{"Left", "Right"}) {
+                text.append("interface ").append(side).append(level);
+                if (level + 1 < depth) {
+                    text.append(" extends Left").append(level + 1).append(", Right").append(level + 1);
+                }
+                text.append(" {\n");
+                for (int i = 0; i < propertiesPerInterface; i++, property++) {
+                    appendGetter(text, property);
+                }
+                text.append("}\n");
+            }
+        }
+        return text.toString();
+    }
+
+    private static void appendGetter(@NotNull StringBuilder text, int property) {
+        text.append("    public abstract ")
+                .append(PROPERTY_TYPES[property % PROPERTY_TYPES.length])
+                .append(" property").append(property).append("();\n");
+    }
+}
@@ -0,0 +1,81 @@
+package org.jetbrains.plugins.autovaluehelper;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+// p50/p99 limits in milliseconds, keyed by <generator>.<scenario>.<phase>.<percentile>
+public class PerformanceBaselines {
+
+    private static final String BASELINES_PROPERTY = "autovaluehelper.performance.baselines";
+    private static final String RECORD_PROPERTY = "autovaluehelper.performance.record";
+    private static final String DEFAULT_BASELINES = "/performance-baselines.properties";
+    // recorded limits leave room for the noise between runs on the same machine
+    private static final double RECORD_HEADROOM = 2.0;
+
+    private final Properties baselines = new Properties();
+    private final List<String> regressions = new ArrayList<>();
+    // with a record file the measured timings are written out instead of being checked
+    @Nullable
+    private final String recordPath = System.getProperty(RECORD_PROPERTY);
+
+    public PerformanceBaselines() throws IOException {
+        final String path = System.getProperty(BASELINES_PROPERTY);
+        try (InputStream stream = path != null
+                ? new FileInputStream(path)
+                : PerformanceBaselines.class.getResourceAsStream(DEFAULT_BASELINES)) {
+            if (stream != null) {
+                baselines.load(stream);
+            }
+        }
+    }
+
+    public void check(@NotNull String key, double actualMillis) throws IOException {
+        if (recordPath != null) {
+            record(recordPath, key, actualMillis);
+            return;
+        }
+        final String baseline = baselines.getProperty(key);
+        if (baseline != null && actualMillis > Double.parseDouble(baseline)) {
+            regressions.add(String.format("%s: %.2f ms > %s ms", key, actualMillis, baseline));
+        }
+    }
+
+    @NotNull
+    public List<String> getRegressions() {
+        return regressions;
+    }
+
+    // every test class records into the same file, which is rewritten with its comments first and the keys sorted,
+    // so a key recorded again replaces its old bound
+    private static synchronized void record(@NotNull String path, @NotNull String key, double actualMillis)
+            throws IOException {
+        final File file = new File(path);
+        final List<String> comments = new ArrayList<>();
+        final Map<String, String> bounds = new TreeMap<>();
+        if (file.exists()) {
+            for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+                final int separator = line.indexOf('=');
+                if (line.trim().isEmpty() || line.startsWith("#") || separator < 0) {
+                    comments.add(line);
+                } else {
+                    bounds.put(line.substring(0, separator).trim(), line.substring(separator + 1).trim());
+                }
+            }
+        }
+        bounds.put(key, String.format(Locale.ROOT, "%.0f", Math.ceil(actualMillis * RECORD_HEADROOM)));
+
+        final List<String> lines = new ArrayList<>(comments);
+        for (Map.Entry<String, String> bound : bounds.entrySet()) {
+            lines.add(bound.getKey() + "=" + bound.getValue());
+        }
+        Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,27 @@
+package org.jetbrains.plugins.autovaluehelper;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+public class PerformanceStatistics {
+
+    private final Map<String, List<Long>> samplesByPhase = new LinkedHashMap<>();
+
+    public void record(@NotNull String phase, long nanos) {
+        samplesByPhase.computeIfAbsent(phase, key -> new ArrayList<>()).add(nanos);
+    }
+
+    @NotNull
+    public Set<String> getPhases() {
+        return samplesByPhase.keySet();
+    }
+
+    // nearest-rank percentile in milliseconds
+    public double percentile(@NotNull String phase, int percentile) {
+        final List<Long> samples = new ArrayList<>(samplesByPhase.get(phase));
+        Collections.sort(samples);
+        final int rank = (int) Math.ceil(percentile / 100.0 * samples.size());
+        return samples.get(Math.max(rank - 1, 0)) / 1_000_000.0;
+    }
+}
@@ -0,0 +1,24 @@
+package org.jetbrains.plugins.autovaluehelper.builder;
+
+import com.intellij.psi.PsiClass;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.plugins.autovaluehelper.AutoValueGeneratorPerformanceTestCase;
+import org.jetbrains.plugins.autovaluehelper.AutoValueMemberPlan;
+import org.jetbrains.plugins.autovaluehelper.AutoValueProperty;
+
+import java.util.List;
+
+public class AutoValueBuilderGeneratorPerformanceTest extends AutoValueGeneratorPerformanceTestCase {
+
+    @NotNull
+    @Override
+    protected String getGeneratorName() {
+        return "builder";
+    }
+
+    @NotNull
+    @Override
+    protected AutoValueMemberPlan createPlan(@NotNull PsiClass targetClass, @NotNull List<AutoValueProperty> properties) {
+        return AutoValueBuilderGenerator.createPlan(getProject(), targetClass, properties);
+    }
+}
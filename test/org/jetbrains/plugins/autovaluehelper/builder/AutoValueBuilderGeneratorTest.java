@@ -0,0 +1,33 @@
+package org.jetbrains.plugins.autovaluehelper.builder;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.plugins.autovaluehelper.AutoValueBaseHelperHandler;
+import org.jetbrains.plugins.autovaluehelper.AutoValueGeneratorTestCase;
+
+public class AutoValueBuilderGeneratorTest extends AutoValueGeneratorTestCase {
+
+    @NotNull
+    @Override
+    protected String getGeneratorName() {
+        return "builder";
+    }
+
+    @NotNull
+    @Override
+    protected AutoValueBaseHelperHandler getHandler() {
+        return AutoValueBuilderHandler.getInstance();
+    }
+
+    public void testNewBuilder() {
+        doTest();
+    }
+
+    public void testUpdateBuilder() {
+        doTest();
+    }
+
+    // the setter of the removed label property goes, hand-written default methods stay
+    public void testDefaultOverload() {
+        doTest();
+    }
+}
@@ -0,0 +1,24 @@
+package org.jetbrains.plugins.autovaluehelper.creator;
+
+import com.intellij.psi.PsiClass;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.plugins.autovaluehelper.AutoValueGeneratorPerformanceTestCase;
+import org.jetbrains.plugins.autovaluehelper.AutoValueMemberPlan;
+import org.jetbrains.plugins.autovaluehelper.AutoValueProperty;
+
+import java.util.List;
+
+public class AutoValueCreateGeneratorPerformanceTest extends AutoValueGeneratorPerformanceTestCase {
+
+    @NotNull
+    @Override
+    protected String getGeneratorName() {
+        return "create";
+    }
+
+    @NotNull
+    @Override
+    protected AutoValueMemberPlan createPlan(@NotNull PsiClass targetClass, @NotNull List<AutoValueProperty> properties) {
+        return AutoValueCreateGenerator.createPlan(getProject(), targetClass, properties);
+    }
+}
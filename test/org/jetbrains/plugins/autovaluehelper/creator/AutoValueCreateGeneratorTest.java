@@ -0,0 +1,62 @@
+package org.jetbrains.plugins.autovaluehelper.creator;
+
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.plugins.autovaluehelper.AutoValueBaseHelperHandler;
+import org.jetbrains.plugins.autovaluehelper.AutoValueGeneratorTestCase;
+import org.jetbrains.plugins.autovaluehelper.AutoValueHelperSettings;
+import org.jetbrains.plugins.autovaluehelper.AutoValueMemberPlan;
+
+public class AutoValueCreateGeneratorTest extends AutoValueGeneratorTestCase {
+
+    @NotNull
+    @Override
+    protected String getGeneratorName() {
+        return "creator";
+    }
+
+    @NotNull
+    @Override
+    protected AutoValueBaseHelperHandler getHandler() {
+        return AutoValueCreateHandler.getInstance();
+    }
+
+    public void testNewCreate() {
+        doTest();
+    }
+
+    public void testUpdateCreate() {
+        doTest();
+    }
+
+    public void testHandWrittenOverload() {
+        doTest();
+    }
+
+    // create(String) is only overloaded, so its callers must not get the arguments of the new create()
+    public void testHandWrittenOverloadCallSites() {
+        final String callerText = "public class Caller { Value parse(String json) { return Value.create(json); } }";
+        final PsiFile caller = myFixture.addFileToProject("Caller.java", callerText);
+        final AutoValueHelperSettings settings = AutoValueHelperSettings.getInstance();
+        final boolean updateCreateCallSites = settings.updateCreateCallSites;
+        settings.updateCreateCallSites = true;
+        try {
+            myFixture.configureByFile("HandWrittenOverload.java");
+            final PsiClass targetClass = ((PsiJavaFile) myFixture.getFile()).getClasses()[0];
+            final AutoValueMemberPlan plan = getHandler().buildPlan(getProject(), targetClass);
+            assertNotNull(plan);
+            AutoValueCreateHandler.getInstance().applyPlan(getProject(), myFixture.getFile(), targetClass, plan);
+            myFixture.checkResultByFile("HandWrittenOverload_after.java", true);
+            assertEquals(callerText, caller.getText());
+        } finally {
+            settings.updateCreateCallSites = updateCreateCallSites;
+        }
+    }
+
+    // interning is off, but Builder.build() still uses the interner
+    public void testInternerUsedByBuilder() {
+        doTest();
+    }
+}
@@ -0,0 +1,11 @@
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import com.google.auto.value.AutoValue;
+
+@AutoValue
+public abstract class Value {
+    public abstract String name();
+
+    @Nullable
+    public abstract Integer count();
+}
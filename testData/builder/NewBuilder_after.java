@@ -0,0 +1,28 @@
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import com.google.auto.value.AutoValue;
+
+@AutoValue
+public abstract class Value {
+    public abstract String name();
+
+    @Nullable
+    public abstract Integer count();
+
+    @NonNull
+    public static Builder builder() {
+        return new AutoValue_Value.Builder();
+    }
+
+    @AutoValue.Builder
+    public interface Builder {
+        @NonNull
+        public Builder name(String name);
+
+        @NonNull
+        public Builder count(@Nullable Integer count);
+
+        @NonNull
+        public Value build();
+    }
+}
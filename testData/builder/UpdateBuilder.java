@@ -0,0 +1,26 @@
+import android.support.annotation.NonNull;
+import com.google.auto.value.AutoValue;
+
+@AutoValue
+public abstract class Value {
+    public abstract String name();
+
+    public abstract int count();
+
+    @NonNull
+    public static Builder builder() {
+        return new AutoValue_Value.Builder();
+    }
+
+    @AutoValue.Builder
+    public interface Builder {
+        @NonNull
+        public Builder name(String name);
+
+        @NonNull
+        public Builder count(long count);
+
+        @NonNull
+        public Value build();
+    }
+}
@@ -0,0 +1,13 @@
+import android.support.annotation.NonNull;
+import com.google.auto.value.AutoValue;
+
+@AutoValue
+public abstract class Value {
+    public abstract String name();
+
+    public abstract int count();
+
+    public static Value create(String json) {
+        return new AutoValue_Value(json, json.length());
+    }
+}
@@ -0,0 +1,18 @@
+import android.support.annotation.NonNull;
+import com.google.auto.value.AutoValue;
+
+@AutoValue
+public abstract class Value {
+    public abstract String name();
+
+    public abstract int count();
+
+    public static Value create(String json) {
+        return new AutoValue_Value(json, json.length());
+    }
+
+    @NonNull
+    public static Value create(String name, int count) {
+        return new AutoValue_Value(name, count);
+    }
+}
@@ -0,0 +1,30 @@
+import android.support.annotation.NonNull;
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+@AutoValue
+public abstract class Value {
+    private static final Interner<Value> INTERNER = Interners.newWeakInterner();
+
+    public abstract String name();
+
+    @NonNull
+    public static Value create(String name) {
+        return new AutoValue_Value(name);
+    }
+
+    @AutoValue.Builder
+    public interface Builder {
+        @NonNull
+        Builder name(String name);
+
+        @NonNull
+        Value autoBuild();
+
+        @NonNull
+        default Value build() {
+            return INTERNER.intern(autoBuild());
+        }
+    }
+}
@@ -0,0 +1,16 @@
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import com.google.auto.value.AutoValue;
+
+@AutoValue
+public abstract class Value {
+    public abstract String name();
+
+    @Nullable
+    public abstract Integer count();
+
+    @NonNull
+    public static Value create(String name, @Nullable Integer count) {
+        return new AutoValue_Value(name, count);
+    }
+}
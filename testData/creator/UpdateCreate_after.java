@@ -0,0 +1,14 @@
+import android.support.annotation.NonNull;
+import com.google.auto.value.AutoValue;
+
+@AutoValue
+public abstract class Value {
+    public abstract String name();
+
+    public abstract int count();
+
+    @NonNull
+    public static Value create(String name, int count) {
+        return new AutoValue_Value(name, count);
+    }
+}